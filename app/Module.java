@@ -1,5 +1,17 @@
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import controllers.StartupWarmUp;
+import fortune.FourPillarsEngine;
+import fortune.GivenNameIndex;
+import fortune.NameFortuneEngine;
+import fortune.StrokeDictionary;
+import services.DailyDigestService;
+import services.GivenNameIndexProvider;
+import services.RemoteCache;
+import services.RemoteCacheProvider;
+import services.StrokeDictionaryProvider;
 import java.time.Clock;
+import javax.inject.Singleton;
 
 /**
  * This class is a Guice module that tells Guice how to bind several
@@ -17,6 +29,29 @@ public class Module extends AbstractModule {
     public void configure() {
         // Use the system clock as the default implementation of Clock
         bind(Clock.class).toInstance(Clock.systemDefaultZone());
+        // Map the stroke database once at startup and share it across all requests
+        bind(StrokeDictionary.class).toProvider(StrokeDictionaryProvider.class).asEagerSingleton();
+        // Index the given name dictionary once at startup for the reverse name search
+        bind(GivenNameIndex.class).toProvider(GivenNameIndexProvider.class).asEagerSingleton();
+        // Shared result cache tier across instances (fortune.remoteCache.type, none by default)
+        bind(RemoteCache.class).toProvider(RemoteCacheProvider.class).in(Singleton.class);
+        // Precompute today's digest and schedule the nightly one
+        bind(DailyDigestService.class).asEagerSingleton();
+        // Exercise the result page path before the server accepts connections
+        bind(StartupWarmUp.class).asEagerSingleton();
+    }
+
+    @Provides
+    @Singleton
+    FourPillarsEngine fourPillarsEngine() {
+        // Loads the bundled solar term table
+        return new FourPillarsEngine();
+    }
+
+    @Provides
+    @Singleton
+    NameFortuneEngine nameFortuneEngine(StrokeDictionary strokeDictionary) {
+        return new NameFortuneEngine(strokeDictionary);
     }
 
 }
@@ -0,0 +1,103 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.libs.Json;
+import play.mvc.*;
+import services.AuditLog;
+import services.FortuneExecutionContext;
+
+import javax.inject.Inject;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Aggregate report of the audit log, read from its daily rollups.
+ */
+public class AuditReportController extends Controller {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditReportController.class);
+
+    private final AuditLog auditLog;
+    private final FortuneExecutionContext fortuneExecutionContext;
+    private final Clock clock;
+    private final boolean localOnly;
+    private final int maxDays;
+    private final int minSurnameRequests;
+    private final int topSurnames;
+
+    @Inject
+    public AuditReportController(AuditLog auditLog, FortuneExecutionContext fortuneExecutionContext, Clock clock,
+                                 Config config) {
+        this.auditLog = auditLog;
+        this.fortuneExecutionContext = fortuneExecutionContext;
+        this.clock = clock;
+        this.localOnly = config.getBoolean("fortune.audit.report.localOnly");
+        this.maxDays = config.getInt("fortune.audit.report.maxDays");
+        this.minSurnameRequests = config.getInt("fortune.audit.report.minSurnameRequests");
+        this.topSurnames = config.getInt("fortune.audit.report.topSurnames");
+    }
+
+    /**
+     * Returns the rating distribution per day and route and the most
+     * requested family names over the last `days` days (default 7), as JSON.
+     * Unless `fortune.audit.report.localOnly` is off, only loopback clients may read it.
+     */
+    public CompletionStage<Result> report(Http.Request request) {
+        if (!auditLog.isEnabled() || localOnly && !MetricsController.isLoopback(request.remoteAddress())) {
+            return CompletableFuture.completedFuture(notFound());
+        }
+        int days;
+        try {
+            days = Integer.parseInt(request.queryString("days").filter(v -> !v.isEmpty()).orElse("7"));
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(error("days must be a number"));
+        }
+        if (days < 1 || days > maxDays) {
+            return CompletableFuture.completedFuture(error("days must be between 1 and " + maxDays));
+        }
+        LocalDate from = LocalDate.now(clock).minusDays(days - 1);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ok(toJson(from));
+            } catch (SQLException e) {
+                logger.error("Could not read the audit report", e);
+                return status(SERVICE_UNAVAILABLE, Json.newObject().put("error", "report unavailable"));
+            }
+        }, fortuneExecutionContext);
+    }
+
+    private ObjectNode toJson(LocalDate from) throws SQLException {
+        ObjectNode result = Json.newObject();
+        result.put("from", from.toString());
+        ArrayNode ratings = result.putArray("ratings");
+        ObjectNode current = null;
+        for (AuditLog.RatingCount row : auditLog.ratingsSince(from)) {
+            String day = row.getDay().toString();
+            if (current == null || !day.equals(current.path("day").asText())
+                    || !row.getRoute().equals(current.path("route").asText())) {
+                current = ratings.addObject().put("day", day).put("route", row.getRoute())
+                    .put("requests", 0L).put("totalLatencyMicros", 0L);
+                current.putObject("counts");
+            }
+            current.put("requests", current.path("requests").asLong() + row.getRequests());
+            current.put("totalLatencyMicros", current.path("totalLatencyMicros").asLong() + row.getLatencyMicros());
+            ((ObjectNode) current.path("counts")).put(row.getRating().getKey(), row.getRequests());
+        }
+        ArrayNode surnames = result.putArray("topSurnames");
+        for (AuditLog.SurnameCount row : auditLog.topSurnamesSince(from, minSurnameRequests, topSurnames)) {
+            surnames.addObject().put("familyName", row.getFamilyName()).put("requests", row.getRequests());
+        }
+        return result;
+    }
+
+    private static Result error(String message) {
+        return badRequest(Json.newObject().put("error", message));
+    }
+}
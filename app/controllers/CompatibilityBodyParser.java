@@ -0,0 +1,19 @@
+package controllers;
+
+import com.typesafe.config.Config;
+import play.http.HttpErrorHandler;
+import play.mvc.BodyParser;
+
+import javax.inject.Inject;
+
+/**
+ * JSON body parser for the compatibility matrix, whose guest lists are
+ * larger than Play's default buffer (`fortune.compatibility.maxBodySize`).
+ */
+public class CompatibilityBodyParser extends BodyParser.Json {
+
+    @Inject
+    public CompatibilityBodyParser(Config config, HttpErrorHandler errorHandler) {
+        super(config.getBytes("fortune.compatibility.maxBodySize"), errorHandler);
+    }
+}
@@ -0,0 +1,214 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import fortune.CompatibilityEngine;
+import fortune.FourPillarsEngine;
+import fortune.NameFortuneEngine;
+import models.BirthChart;
+import models.Compatibility;
+import models.NameFortune;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+import play.libs.Json;
+import play.mvc.*;
+import services.CompatibilityPool;
+import services.FortuneExecutionContext;
+
+import javax.inject.Inject;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Compatibility (相性) of two people, and of every pair from two guest lists.
+ *
+ * A person is a JSON object with `birthDate`, optional `birthTime` and
+ * `prefecture`, and `familyName` and `givenName`.
+ */
+public class CompatibilityController extends Controller {
+
+    /** Scores per streamed block of the matrix, so a block is about 1 MB of bytes. */
+    private static final int BLOCK_PAIRS = 1 << 20;
+
+    private final CompatibilityEngine compatibilityEngine;
+    private final FourPillarsEngine fourPillarsEngine;
+    private final NameFortuneEngine nameFortuneEngine;
+    private final CompatibilityPool compatibilityPool;
+    private final FortuneExecutionContext fortuneExecutionContext;
+    private final int maxPeople;
+
+    @Inject
+    public CompatibilityController(CompatibilityEngine compatibilityEngine, FourPillarsEngine fourPillarsEngine,
+                                   NameFortuneEngine nameFortuneEngine, CompatibilityPool compatibilityPool,
+                                   FortuneExecutionContext fortuneExecutionContext, Config config) {
+        this.compatibilityEngine = compatibilityEngine;
+        this.fourPillarsEngine = fourPillarsEngine;
+        this.nameFortuneEngine = nameFortuneEngine;
+        this.compatibilityPool = compatibilityPool;
+        this.fortuneExecutionContext = fortuneExecutionContext;
+        this.maxPeople = config.getInt("fortune.compatibility.maxPeople");
+    }
+
+    /**
+     * Scores the `first` and `second` people of a JSON body.
+     */
+    @BodyParser.Of(BodyParser.Json.class)
+    public CompletionStage<Result> pair(Http.Request request) {
+        JsonNode body = request.body().asJson();
+        return CompletableFuture.supplyAsync(() -> {
+            BirthChart firstChart;
+            NameFortune firstName;
+            BirthChart secondChart;
+            NameFortune secondName;
+            try {
+                JsonNode first = body.path("first");
+                JsonNode second = body.path("second");
+                firstChart = chart(first);
+                firstName = name(first);
+                secondChart = chart(second);
+                secondName = name(second);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                return error(e.getMessage());
+            }
+            Compatibility compatibility = compatibilityEngine.compare(firstChart, firstName, secondChart, secondName);
+            ObjectNode result = Json.newObject()
+                .put("score", compatibility.getScore())
+                .put("birthScore", compatibility.getBirthScore())
+                .put("nameScore", compatibility.getNameScore());
+            result.set("first", personJson(firstChart, firstName));
+            result.set("second", personJson(secondChart, secondName));
+            return ok(result);
+        }, fortuneExecutionContext);
+    }
+
+    /**
+     * Scores every person of `left` against every person of `right`.
+     *
+     * The matrix is computed on the compatibility pool one block of rows at
+     * a time and streamed as `{"rows":n,"columns":m,"scores":[[...],...]}`,
+     * or as raw row-major bytes when the client accepts
+     * `application/octet-stream`, so at most a couple of blocks are held in
+     * memory at once.
+     */
+    @BodyParser.Of(CompatibilityBodyParser.class)
+    public CompletionStage<Result> matrix(Http.Request request) {
+        JsonNode body = request.body().asJson();
+        boolean binary = request.accepts(Http.MimeTypes.BINARY) && !request.accepts(Http.MimeTypes.JSON);
+        return CompletableFuture.supplyAsync(() -> {
+            int[] rows;
+            int[] columns;
+            try {
+                rows = profiles(body.path("left"), "left");
+                columns = profiles(body.path("right"), "right");
+            } catch (IllegalArgumentException | DateTimeException e) {
+                return error(e.getMessage());
+            }
+            int rowsPerBlock = Math.max(1, BLOCK_PAIRS / Math.max(1, columns.length));
+            int blocks = (rows.length + rowsPerBlock - 1) / rowsPerBlock;
+            Source<ByteString, ?> scores = Source.range(0, blocks - 1)
+                .mapAsync(1, block -> {
+                    int from = block * rowsPerBlock;
+                    int to = Math.min(rows.length, from + rowsPerBlock);
+                    return CompletableFuture.supplyAsync(() -> {
+                        byte[] out = new byte[(to - from) * columns.length];
+                        compatibilityEngine.scoreRows(rows, from, to, columns, out, compatibilityPool.get());
+                        return binary ? ByteString.fromArrayUnsafe(out) : renderRows(out, from, columns.length);
+                    }, compatibilityPool.get());
+                });
+            if (binary) {
+                return ok().chunked(scores).as(Http.MimeTypes.BINARY)
+                    .withHeader("X-Matrix-Rows", String.valueOf(rows.length))
+                    .withHeader("X-Matrix-Columns", String.valueOf(columns.length));
+            }
+            String header = "{\"rows\":" + rows.length + ",\"columns\":" + columns.length + ",\"scores\":[";
+            return ok().chunked(scores
+                .prepend(Source.single(ByteString.fromString(header)))
+                .concat(Source.single(ByteString.fromString("]}")))).as(Http.MimeTypes.JSON);
+        }, fortuneExecutionContext);
+    }
+
+    private int[] profiles(JsonNode people, String field) {
+        if (!people.isArray() || people.isEmpty()) {
+            throw new IllegalArgumentException(field + " must be a non-empty array");
+        }
+        if (people.size() > maxPeople) {
+            throw new IllegalArgumentException(field + " must not have more than " + maxPeople + " people");
+        }
+        int[] profiles = new int[people.size()];
+        for (int i = 0; i < profiles.length; i++) {
+            JsonNode person = people.get(i);
+            profiles[i] = CompatibilityEngine.profile(chart(person), name(person));
+        }
+        return profiles;
+    }
+
+    private BirthChart chart(JsonNode person) {
+        String birthDate = person.path("birthDate").asText("");
+        if (birthDate.isEmpty()) {
+            throw new IllegalArgumentException("birthDate is required");
+        }
+        String birthTime = person.path("birthTime").asText("");
+        return fourPillarsEngine.chart(LocalDate.parse(birthDate),
+            birthTime.isEmpty() ? null : LocalTime.parse(birthTime),
+            person.path("prefecture").asText(""));
+    }
+
+    private NameFortune name(JsonNode person) {
+        String familyName = person.path("familyName").asText("");
+        String givenName = person.path("givenName").asText("");
+        if (familyName.isEmpty() || givenName.isEmpty()) {
+            throw new IllegalArgumentException("familyName and givenName are required");
+        }
+        return nameFortuneEngine.generateNameFortune(familyName, givenName);
+    }
+
+    private static ObjectNode personJson(BirthChart chart, NameFortune name) {
+        return Json.newObject()
+            .put("yearPillar", chart.getYearPillarName())
+            .put("monthPillar", chart.getMonthPillarName())
+            .put("dayPillar", chart.getDayPillarName())
+            .put("hourPillar", chart.getHourPillarName())
+            .put("jinKaku", name.getJinKaku())
+            .put("soKaku", name.getSoKaku());
+    }
+
+    /**
+     * Renders a block of rows as JSON arrays, with a leading comma unless
+     * it starts at the first row. Scores are at most three digits.
+     */
+    private static ByteString renderRows(byte[] scores, int firstRow, int columns) {
+        byte[] out = new byte[scores.length * 4 + scores.length / Math.max(1, columns) * 3 + 1];
+        int n = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (i % columns == 0) {
+                if (i > 0) {
+                    out[n++] = ']';
+                }
+                if (i > 0 || firstRow > 0) {
+                    out[n++] = ',';
+                }
+                out[n++] = '[';
+            } else {
+                out[n++] = ',';
+            }
+            int score = scores[i];
+            if (score >= 100) {
+                out[n++] = (byte) ('0' + score / 100);
+            }
+            if (score >= 10) {
+                out[n++] = (byte) ('0' + score / 10 % 10);
+            }
+            out[n++] = (byte) ('0' + score % 10);
+        }
+        out[n++] = ']';
+        return ByteString.fromArray(out, 0, n);
+    }
+
+    private static Result error(String message) {
+        return badRequest(Json.newObject().put("error", message));
+    }
+}
@@ -0,0 +1,28 @@
+package controllers;
+
+import org.apache.pekko.util.ByteString;
+import play.api.http.HttpConfiguration;
+import play.http.HttpErrorHandler;
+import play.mvc.BodyParser;
+import play.mvc.Http;
+
+import javax.inject.Inject;
+
+/**
+ * Buffers an urlencoded form body (up to `play.http.parser.maxMemoryBuffer`)
+ * and decodes it straight into {@link FormFields}, so the result page
+ * actions bind their few string fields without Play's form binding.
+ * Like {@link BodyParser.TolerantFormUrlEncoded}, the content type is not checked.
+ */
+public class FormBodyParser extends BodyParser.BufferingBodyParser<FormFields> {
+
+    @Inject
+    public FormBodyParser(HttpConfiguration httpConfiguration, HttpErrorHandler errorHandler) {
+        super(httpConfiguration, errorHandler, "Error parsing form");
+    }
+
+    @Override
+    protected FormFields parse(Http.RequestHeader request, ByteString bytes) {
+        return FormFields.parse(bytes.utf8String());
+    }
+}
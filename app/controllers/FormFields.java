@@ -0,0 +1,82 @@
+package controllers;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fields of an urlencoded form body or query string, the first value of
+ * each name, for the result pages' direct binding.
+ */
+public final class FormFields {
+
+    private final Map<String, String> values;
+
+    private FormFields(Map<String, String> values) {
+        this.values = values;
+    }
+
+    /**
+     * Decodes an `application/x-www-form-urlencoded` string (UTF-8).
+     * Pairs that are not validly percent-encoded are skipped.
+     */
+    public static FormFields parse(String urlEncoded) {
+        Map<String, String> values = new HashMap<>(8);
+        int length = urlEncoded.length();
+        int start = 0;
+        while (start < length) {
+            int end = urlEncoded.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            int equals = urlEncoded.indexOf('=', start);
+            if (equals < 0 || equals > end) {
+                equals = end;
+            }
+            String name = decode(urlEncoded, start, equals);
+            if (name != null && !name.isEmpty() && !values.containsKey(name)) {
+                String value = equals < end ? decode(urlEncoded, equals + 1, end) : "";
+                if (value != null) {
+                    values.put(name, value);
+                }
+            }
+            start = end + 1;
+        }
+        return new FormFields(values);
+    }
+
+    /**
+     * Fields of an already decoded query string.
+     */
+    public static FormFields of(Map<String, String[]> queryString) {
+        Map<String, String> values = new HashMap<>(8);
+        queryString.forEach((name, array) -> {
+            if (array.length > 0) {
+                values.put(name, array[0]);
+            }
+        });
+        return new FormFields(values);
+    }
+
+    /**
+     * The first value of the field, or null if it is missing.
+     */
+    public String get(String name) {
+        return values.get(name);
+    }
+
+    private static String decode(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '+') {
+                try {
+                    return URLDecoder.decode(text.substring(start, end), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return text.substring(start, end);
+    }
+}
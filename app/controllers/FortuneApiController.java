@@ -0,0 +1,408 @@
+package controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+import fortune.DailyDigest;
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import fortune.NameFortuneEngine;
+import models.BirthChart;
+import models.DailyFortune;
+import models.NameFortune;
+import models.Rating;
+import models.WeeklyFortune;
+import org.apache.pekko.japi.Pair;
+import org.apache.pekko.stream.javadsl.Framing;
+import org.apache.pekko.stream.javadsl.FramingTruncation;
+import org.apache.pekko.stream.javadsl.JsonFraming;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.stream.scaladsl.Framing.FramingException;
+import org.apache.pekko.util.ByteString;
+import play.libs.Json;
+import play.mvc.*;
+import services.DailyDigestService;
+import services.FortuneCalendar;
+import services.FortuneExecutionContext;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * API for bulk fortune telling, streaming JSON, NDJSON and CSV.
+ */
+public class FortuneApiController extends Controller {
+
+    private static final String CSV = "text/csv";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV_HEADER =
+        "line,familyName,givenName,gender,familyNameStrokes,givenNameStrokes,tenKaku,jinKaku,chiKaku,gaiKaku,soKaku,rating,ratingText,error\n";
+    private static final String BIRTH_DATE_RANGE =
+        "birthDate must be between " + FourPillarsEngine.MIN_YEAR + " and " + FourPillarsEngine.MAX_YEAR;
+    /** Stands in for a line longer than `maxRecordLength`; compared by identity. */
+    private static final ByteString LINE_TOO_LONG = ByteString.fromString("line too long");
+
+    private final FortuneCalendar fortuneCalendar;
+    private final DailyDigestService dailyDigestService;
+    private final NameFortuneEngine nameFortuneEngine;
+    private final FourPillarsEngine fourPillarsEngine;
+    private final FortuneExecutionContext executor;
+
+    /** Number of record groups computed concurrently. */
+    private final int parallelism;
+
+    /** Records computed and serialized together by one task. */
+    private final int groupSize;
+
+    /** Largest accepted record (JSON object or line), in bytes. */
+    private final int maxRecordLength;
+
+    @Inject
+    public FortuneApiController(FortuneCalendar fortuneCalendar, DailyDigestService dailyDigestService,
+                                NameFortuneEngine nameFortuneEngine, FourPillarsEngine fourPillarsEngine,
+                                FortuneExecutionContext executor, Config config) {
+        this.fortuneCalendar = fortuneCalendar;
+        this.dailyDigestService = dailyDigestService;
+        this.nameFortuneEngine = nameFortuneEngine;
+        this.fourPillarsEngine = fourPillarsEngine;
+        this.executor = executor;
+        Config bulkConfig = config.getConfig("fortune.bulk");
+        int configuredParallelism = bulkConfig.getInt("parallelism");
+        this.parallelism = configuredParallelism > 0
+            ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        this.groupSize = bulkConfig.getInt("groupSize");
+        this.maxRecordLength = bulkConfig.getInt("maxRecordLength");
+    }
+
+    /**
+     * Today's fortune for the `birthDate` query parameter (birth time
+     * unknown), looked up in the precomputed daily digest and cacheable
+     * until local midnight.
+     */
+    public Result todayFortune(Http.Request request) {
+        LocalDate birthDate;
+        try {
+            birthDate = LocalDate.parse(request.queryString("birthDate").orElse(""));
+        } catch (DateTimeParseException e) {
+            return badRequest(Json.newObject().put("error", "birthDate must be yyyy-MM-dd"));
+        }
+        if (!DailyDigest.supports(birthDate)) {
+            return badRequest(Json.newObject().put("error", BIRTH_DATE_RANGE));
+        }
+        DailyDigestService.Snapshot today = dailyDigestService.today();
+        DailyFortune fortune = DailyFortune.of(Rating.fromIndex(today.getDigest().ratingIndex(birthDate)));
+        Rating rating = fortune.getRating();
+        return ok(Json.newObject()
+            .put("date", today.getDigest().getDay().toString())
+            .put("birthDate", birthDate.toString())
+            .put("rating", rating.getKey())
+            .put("ratingText", rating.getText())
+            .put("overall", fortune.getOverall())
+            .put("love", fortune.getLove())
+            .put("work", fortune.getWork())
+            .put("health", fortune.getHealth()))
+            .withHeader(Http.HeaderNames.CACHE_CONTROL, HttpCaching.maxAge(dailyDigestService.secondsRemaining(today)));
+    }
+
+    /**
+     * Computes weekly four pillars fortunes for a JSON array of
+     * `{"birthDate", "birthTime", "prefecture", "gender"}` records.
+     *
+     * The request body is read as a stream and results are written back
+     * as a chunked JSON array in input order, so neither side is buffered
+     * in full. Each record is computed from its birth chart, like the
+     * `/fortune` page, so the birth time and prefecture can move the day
+     * pillar. Records are computed in parallel in groups; a record that
+     * cannot be parsed or whose birth date is outside the engine's range
+     * yields `{"error": ...}` in its place. A record longer
+     * than `maxRecordLength` (or input that is not a sequence of JSON
+     * objects) ends the array with a final error element, so the response
+     * stays valid JSON.
+     */
+    @BodyParser.Of(StreamingBodyParser.class)
+    public Result batchFortune(Http.Request request) {
+        // All records in one request use the same day, even across midnight
+        FortuneWeek week = fortuneCalendar.currentWeek();
+        String[] dates = new String[FortuneWeek.DAYS];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = week.getFirstDay().plusDays(i).toString();
+        }
+
+        Source<ByteString, ?> results = StreamingBodyParser.body(request)
+            .via(JsonFraming.objectScanner(maxRecordLength))
+            // Before grouping, so the records already framed are still answered
+            .recover(FramingException.class, ByteString::emptyByteString)
+            .grouped(groupSize)
+            .mapAsync(parallelism, records ->
+                CompletableFuture.supplyAsync(() -> renderGroup(week, dates, records), executor))
+            .intersperse(ByteString.fromString("["), ByteString.fromString(","), ByteString.fromString("]"));
+
+        return ok().chunked(results).as(Http.MimeTypes.JSON);
+    }
+
+    /**
+     * Judges a list of names uploaded as NDJSON (`{"familyName", "givenName",
+     * "gender"}` per line, the default) or CSV (`text/csv`, columns
+     * familyName,givenName,gender with an optional header row).
+     *
+     * Results are streamed back in the same format, one per input line,
+     * while the upload is still being read. Lines are computed in groups
+     * with bounded parallelism (`fortune.bulk`), and the stream
+     * backpressures the upload when the client reads slowly, so memory
+     * stays flat regardless of the input size. A malformed row yields an
+     * error record for that line; only a line longer than
+     * `maxRecordLength` ends the stream, with a final error record for it
+     * after the results of all lines before it.
+     */
+    @BodyParser.Of(StreamingBodyParser.class)
+    public Result batchNameFortune(Http.Request request) {
+        boolean csv = request.contentType().map(CSV::equalsIgnoreCase).orElse(false);
+
+        Source<ByteString, ?> results = StreamingBodyParser.body(request)
+            .via(Framing.delimiter(ByteString.fromString("\n"), maxRecordLength, FramingTruncation.ALLOW))
+            // Before numbering and grouping, so the lines already framed are still answered
+            .recover(FramingException.class, () -> LINE_TOO_LONG)
+            .zipWithIndex()
+            .grouped(groupSize)
+            .mapAsync(parallelism, lines ->
+                CompletableFuture.supplyAsync(() -> renderNameGroup(lines, csv), executor))
+            .filter(bytes -> !bytes.isEmpty());
+
+        if (csv) {
+            return ok().chunked(results.prepend(Source.single(ByteString.fromString(CSV_HEADER))))
+                .as(CSV + "; charset=utf-8");
+        }
+        return ok().chunked(results).as(NDJSON);
+    }
+
+    /**
+     * Judges and serializes a group of numbered input lines.
+     */
+    private ByteString renderNameGroup(List<Pair<ByteString, Long>> lines, boolean csv) {
+        StringBuilder out = new StringBuilder(lines.size() * 256);
+        for (Pair<ByteString, Long> line : lines) {
+            long lineNumber = line.second() + 1;
+            if (line.first() == LINE_TOO_LONG) {
+                appendNameError(out, csv, lineNumber, "line too long");
+                continue;
+            }
+            String text = line.first().utf8String();
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            if (text.trim().isEmpty()) {
+                continue;
+            }
+
+            String[] fields = csv ? parseCsvRow(text) : parseJsonRow(text);
+            if (fields == null) {
+                appendNameError(out, csv, lineNumber, "malformed row");
+            } else if (csv && lineNumber == 1 && "familyName".equals(fields[0])) {
+                continue; // header row
+            } else if (fields[0].isEmpty() || fields[1].isEmpty()) {
+                appendNameError(out, csv, lineNumber, "familyName and givenName are required");
+            } else {
+                String familyName = NameFortuneEngine.normalize(fields[0]);
+                String givenName = NameFortuneEngine.normalize(fields[1]);
+                NameFortune fortune = nameFortuneEngine.generateNameFortune(familyName, givenName);
+                appendNameFortune(out, csv, lineNumber, fields, fortune);
+            }
+        }
+        return ByteString.fromString(out.toString(), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Returns familyName, givenName and gender of an NDJSON row, or null if it is not a JSON object.
+     */
+    private static String[] parseJsonRow(String text) {
+        try {
+            JsonNode node = Json.mapper().readTree(text);
+            if (!node.isObject()) {
+                return null;
+            }
+            return new String[] {
+                node.path("familyName").asText(""),
+                node.path("givenName").asText(""),
+                node.path("gender").asText("")
+            };
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns familyName, givenName and gender of a CSV row, or null if the quoting is broken.
+     */
+    static String[] parseCsvRow(String text) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        while (fields.size() < 3) {
+            fields.add("");
+        }
+        return new String[] {fields.get(0), fields.get(1), fields.get(2)};
+    }
+
+    private static void appendNameFortune(StringBuilder out, boolean csv, long lineNumber,
+                                          String[] fields, NameFortune fortune) {
+        Rating rating = fortune.getStrokeFortune().getRating();
+        if (csv) {
+            out.append(lineNumber).append(',')
+                .append(csvField(fields[0])).append(',')
+                .append(csvField(fields[1])).append(',')
+                .append(csvField(fields[2])).append(',')
+                .append(fortune.getFamilyNameStrokes()).append(',')
+                .append(fortune.getGivenNameStrokes()).append(',')
+                .append(fortune.getTenKaku()).append(',')
+                .append(fortune.getJinKaku()).append(',')
+                .append(fortune.getChiKaku()).append(',')
+                .append(fortune.getGaiKaku()).append(',')
+                .append(fortune.getSoKaku()).append(',')
+                .append(rating.getKey()).append(',')
+                .append(rating.getText()).append(",\n");
+        } else {
+            out.append("{\"line\":").append(lineNumber)
+                .append(",\"familyName\":").append(jsonString(fields[0]))
+                .append(",\"givenName\":").append(jsonString(fields[1]))
+                .append(",\"gender\":").append(jsonString(fields[2]))
+                .append(",\"familyNameStrokes\":").append(fortune.getFamilyNameStrokes())
+                .append(",\"givenNameStrokes\":").append(fortune.getGivenNameStrokes())
+                .append(",\"tenKaku\":").append(fortune.getTenKaku())
+                .append(",\"jinKaku\":").append(fortune.getJinKaku())
+                .append(",\"chiKaku\":").append(fortune.getChiKaku())
+                .append(",\"gaiKaku\":").append(fortune.getGaiKaku())
+                .append(",\"soKaku\":").append(fortune.getSoKaku())
+                .append(",\"rating\":\"").append(rating.getKey())
+                .append("\",\"ratingText\":\"").append(rating.getText())
+                .append("\"}\n");
+        }
+    }
+
+    private static void appendNameError(StringBuilder out, boolean csv, long lineNumber, String message) {
+        if (csv) {
+            out.append(lineNumber).append(",,,,,,,,,,,,,").append(message).append('\n');
+        } else {
+            out.append("{\"line\":").append(lineNumber)
+                .append(",\"error\":\"").append(message).append("\"}\n");
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        return Json.toJson(value).toString();
+    }
+
+    /**
+     * Computes and serializes a group of records as comma separated JSON objects.
+     */
+    private ByteString renderGroup(FortuneWeek week, String[] dates, List<ByteString> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(records.size() * 1024);
+        try (JsonGenerator generator = Json.mapper().getFactory().createGenerator(out)) {
+            for (int i = 0; i < records.size(); i++) {
+                if (i > 0) {
+                    generator.writeRaw(',');
+                }
+                writeFortune(generator, week, dates, records.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteString.fromArray(out.toByteArray());
+    }
+
+    private void writeFortune(JsonGenerator generator, FortuneWeek week, String[] dates, ByteString record)
+            throws IOException {
+        if (record.isEmpty()) {
+            // The framing failed here and the stream ends
+            writeError(generator, "record too long or not a JSON object");
+            return;
+        }
+        JsonNode node;
+        LocalDate birthDate;
+        try {
+            node = Json.mapper().readTree(record.toArray());
+            birthDate = LocalDate.parse(node.path("birthDate").asText(""));
+        } catch (IOException e) {
+            writeError(generator, "malformed record");
+            return;
+        } catch (DateTimeParseException e) {
+            writeError(generator, "birthDate must be yyyy-MM-dd");
+            return;
+        }
+
+        if (!DailyDigest.supports(birthDate)) {
+            writeError(generator, BIRTH_DATE_RANGE);
+            return;
+        }
+        BirthChart chart;
+        try {
+            chart = HomeController.chart(fourPillarsEngine, birthDate,
+                node.path("birthTime").asText(""), node.path("prefecture").asText(null));
+        } catch (IllegalArgumentException e) {
+            writeError(generator, BIRTH_DATE_RANGE);
+            return;
+        }
+        WeeklyFortune weeklyFortune = week.fortuneFor(chart);
+
+        generator.writeStartObject();
+        generator.writeStringField("birthDate", birthDate.toString());
+        generator.writeStringField("gender", node.path("gender").asText(null));
+        generator.writeStringField("dayPillar", chart.getDayPillarName());
+        generator.writeArrayFieldStart("days");
+        for (int i = 0; i < weeklyFortune.size(); i++) {
+            DailyFortune day = weeklyFortune.getDay(i);
+            generator.writeStartObject();
+            generator.writeStringField("date", dates[i]);
+            generator.writeStringField("label", weeklyFortune.getDayLabel(i));
+            generator.writeStringField("rating", day.getRating().getKey());
+            generator.writeStringField("ratingText", day.getRating().getText());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeError(JsonGenerator generator, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+    }
+}
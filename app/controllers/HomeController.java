@@ -1,13 +1,25 @@
 package controllers;
 
 import play.mvc.*;
-import play.data.*;
 import views.html.*;
+import models.*;
+import com.typesafe.config.Config;
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import fortune.NameFortuneEngine;
+import services.AuditLog;
+import services.FortuneCalendar;
+import services.FortuneExecutionContext;
+import services.FortuneMetrics;
+import services.NameFortuneCache;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.DayOfWeek;
-import java.util.*;
-import java.util.regex.Pattern;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -18,12 +30,40 @@ import javax.inject.Inject;
 public class HomeController extends Controller {
 
     private final AssetsFinder assetsFinder;
-    private final FormFactory formFactory;
+    private final FourPillarsEngine fourPillarsEngine;
+    private final NameFortuneEngine nameFortuneEngine;
+    private final NameFortuneCache nameFortuneCache;
+    private final FortuneCalendar fortuneCalendar;
+    private final FortuneExecutionContext fortuneExecutionContext;
+    private final ResultPageCache resultPageCache;
+    private final AuditLog auditLog;
+    private final FortuneMetrics.ActionTimers fortuneTimers;
+    private final FortuneMetrics.ActionTimers nameFortuneTimers;
+    private final String resultVersion;
+    private final String nameResultCacheControl;
 
     @Inject
-    public HomeController(AssetsFinder assetsFinder, FormFactory formFactory) {
+    public HomeController(AssetsFinder assetsFinder,
+                          FourPillarsEngine fourPillarsEngine, NameFortuneEngine nameFortuneEngine, NameFortuneCache nameFortuneCache,
+                          FortuneCalendar fortuneCalendar, FortuneExecutionContext fortuneExecutionContext,
+                          ResultPageCache resultPageCache, AuditLog auditLog, FortuneMetrics metrics, Config config) {
         this.assetsFinder = assetsFinder;
-        this.formFactory = formFactory;
+        this.fourPillarsEngine = fourPillarsEngine;
+        this.nameFortuneEngine = nameFortuneEngine;
+        this.nameFortuneCache = nameFortuneCache;
+        this.fortuneCalendar = fortuneCalendar;
+        this.fortuneExecutionContext = fortuneExecutionContext;
+        this.resultPageCache = resultPageCache;
+        this.auditLog = auditLog;
+        this.fortuneTimers = metrics.action("fortune");
+        this.nameFortuneTimers = metrics.action("nameFortune");
+        // Fingerprinted asset URLs are part of the pages, so new assets also change the ETags
+        this.resultVersion = config.getString("fortune.http.resultVersion")
+            + '|' + assetsFinder.path("stylesheets/main.css")
+            + '|' + assetsFinder.path("javascripts/main.js")
+            + '|' + assetsFinder.path("images/favicon.png");
+        this.nameResultCacheControl = HttpCaching.maxAge(
+            config.getDuration("fortune.http.nameResultMaxAge", TimeUnit.SECONDS));
     }
 
     /**
@@ -64,370 +104,270 @@ public class HomeController extends Controller {
 
     /**
      * An action that processes the fortune telling form and displays results.
+     * The body is decoded by {@link FormBodyParser}; validation, computation
+     * and rendering run on the fortune dispatcher.
      */
-    public Result fortune(Http.Request request) {
-        Form<FortuneData> form = formFactory.form(FortuneData.class).bindFromRequest(request);
-        
-        if (form.hasErrors()) {
-            return badRequest(fourpillars_input.render("入力内容に誤りがあります", request, assetsFinder));
-        }
-        
-        FortuneData data = form.get();
-        
-        // Generate fortune for the next 7 days
-        Map<String, Map<String, String>> fortuneResults = generateWeeklyFortune(data);
-        
-        return ok(fortune.render(
-            data.birthDate,
-            data.birthTime != null ? data.birthTime : "",
-            data.prefecture,
-            data.gender,
-            fortuneResults,
-            assetsFinder
-        ));
+    @BodyParser.Of(FormBodyParser.class)
+    public CompletionStage<Result> fortune(Http.Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            FortuneData data = bindFortune(request.body().as(FormFields.class));
+            
+            if (data == null) {
+                return badRequest(fourpillars_input.render("入力内容に誤りがあります", request, assetsFinder));
+            }
+            
+            return renderFortune(data, fortuneCalendar.currentWeek(), acceptsGzip(request), start);
+        }, fortuneExecutionContext);
     }
 
     /**
-     * An action that processes the name fortune form and displays results.
+     * GET-addressable four pillars result (inputs in the query string).
+     * The page only changes at local midnight, so it is cacheable until
+     * then and a matching If-None-Match is answered without rendering.
      */
-    public Result nameFortune(Http.Request request) {
-        Form<NameFortuneData> form = formFactory.form(NameFortuneData.class).bindFromRequest(request);
-        
-        if (form.hasErrors()) {
-            return badRequest(name_fortune_input.render("入力内容に誤りがあります", request, assetsFinder));
-        }
-        
-        NameFortuneData data = form.get();
-        
-        // Generate name fortune based on stroke counts
-        Map<String, String> fortuneResults = generateNameFortune(data);
-        
-        return ok(name_fortune_result.render(
-            data.familyName,
-            data.givenName,
-            data.gender,
-            fortuneResults,
-            assetsFinder
-        ));
-    }
-    private Map<String, Map<String, String>> generateWeeklyFortune(FortuneData data) {
-        Map<String, Map<String, String>> weeklyFortune = new LinkedHashMap<>();
-        
-        // Parse birth date for fortune calculation
-        LocalDate birthDate = LocalDate.parse(data.birthDate);
-        LocalDate today = LocalDate.now();
-        
-        // Calculate basic fortune elements based on birth date
-        int birthSum = calculateBirthSum(birthDate);
-        String[] elements = {"木", "火", "土", "金", "水"};
-        String primaryElement = elements[birthSum % 5];
-        
-        // Generate fortune for next 7 days
-        for (int i = 0; i < 7; i++) {
-            LocalDate currentDate = today.plusDays(i);
-            String dayName = getDayName(currentDate, i);
+    public CompletionStage<Result> fortuneResult(Http.Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            FortuneData data = bindFortune(FormFields.of(request.queryString()));
             
-            Map<String, String> dailyFortune = generateDailyFortune(
-                birthDate, currentDate, primaryElement, data.gender
+            if (data == null) {
+                return badRequest(fourpillars_input.render("入力内容に誤りがあります", request, assetsFinder));
+            }
+            
+            FortuneCalendar.Window window = fortuneCalendar.currentWindow();
+            String etag = HttpCaching.etag(
+                resultVersion, "fortune", window.getWeek().getFirstDay().toString(),
+                data.birthDate, data.birthTime, data.prefecture, data.gender
             );
+            boolean gzip = acceptsGzip(request);
+            if (gzip) {
+                etag = HttpCaching.gzipVariant(etag);
+            }
+            String cacheControl = HttpCaching.maxAge(fortuneCalendar.secondsRemaining(window));
             
-            weeklyFortune.put(dayName, dailyFortune);
-        }
-        
-        return weeklyFortune;
+            if (HttpCaching.notModified(request.header(Http.HeaderNames.IF_NONE_MATCH), etag)) {
+                return notModified(etag, cacheControl);
+            }
+            return renderFortune(data, window.getWeek(), gzip, start)
+                .withHeaders(Http.HeaderNames.ETAG, etag, Http.HeaderNames.CACHE_CONTROL, cacheControl);
+        }, fortuneExecutionContext);
     }
 
     /**
-     * Calculate a simple numeric value from birth date for fortune generation.
+     * An action that processes the name fortune form and displays results.
+     * The body is decoded by {@link FormBodyParser}; validation, computation
+     * and rendering run on the fortune dispatcher.
      */
-    private int calculateBirthSum(LocalDate birthDate) {
-        return birthDate.getYear() + birthDate.getMonthValue() + birthDate.getDayOfMonth();
+    @BodyParser.Of(FormBodyParser.class)
+    public CompletionStage<Result> nameFortune(Http.Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            NameFortuneData data = bindNameFortune(request.body().as(FormFields.class));
+            
+            if (data == null) {
+                return badRequest(name_fortune_input.render("入力内容に誤りがあります", request, assetsFinder));
+            }
+            
+            return renderNameFortune(data, acceptsGzip(request), start);
+        }, fortuneExecutionContext);
     }
 
     /**
-     * Get formatted day name with date.
+     * GET-addressable name fortune result (inputs in the query string).
+     * The page depends on nothing but its inputs and the result version, so
+     * it is cacheable for `fortune.http.nameResultMaxAge` and then revalidated
+     * by ETag, which picks up a new result version.
      */
-    private String getDayName(LocalDate date, int dayOffset) {
-        String[] weekDays = {"日", "月", "火", "水", "木", "金", "土"};
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        int dayIndex = dayOfWeek.getValue() % 7; // Sunday = 0
-        
-        String dayName = weekDays[dayIndex];
-        String dateStr = date.format(DateTimeFormatter.ofPattern("M月d日"));
-        
-        if (dayOffset == 0) {
-            return "今日 (" + dateStr + " " + dayName + "曜日)";
-        } else if (dayOffset == 1) {
-            return "明日 (" + dateStr + " " + dayName + "曜日)";
-        } else {
-            return dateStr + " (" + dayName + "曜日)";
-        }
+    public CompletionStage<Result> nameFortuneResult(Http.Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            NameFortuneData data = bindNameFortune(FormFields.of(request.queryString()));
+            
+            if (data == null) {
+                return badRequest(name_fortune_input.render("入力内容に誤りがあります", request, assetsFinder));
+            }
+            
+            String etag = HttpCaching.etag(resultVersion, "nameFortune", data.familyName, data.givenName, data.gender);
+            boolean gzip = acceptsGzip(request);
+            if (gzip) {
+                etag = HttpCaching.gzipVariant(etag);
+            }
+            
+            if (HttpCaching.notModified(request.header(Http.HeaderNames.IF_NONE_MATCH), etag)) {
+                return notModified(etag, nameResultCacheControl);
+            }
+            return renderNameFortune(data, gzip, start)
+                .withHeaders(Http.HeaderNames.ETAG, etag, Http.HeaderNames.CACHE_CONTROL, nameResultCacheControl);
+        }, fortuneExecutionContext);
     }
 
     /**
-     * Generate daily fortune based on Four Pillars elements (simplified).
+     * Whether the result page can be sent gzip-encoded from the page cache.
      */
-    private Map<String, String> generateDailyFortune(
-            LocalDate birthDate, LocalDate currentDate, String element, String gender
-    ) {
-        Map<String, String> fortune = new HashMap<>();
-        
-        // Simple fortune calculation based on date relationships
-        int dayDiff = (int) (currentDate.toEpochDay() - birthDate.toEpochDay());
-        int fortuneIndex = Math.abs(dayDiff + currentDate.getDayOfMonth()) % 4;
-        
-        String[] ratings = {"excellent", "good", "average", "poor"};
-        String[] ratingTexts = {"大吉", "吉", "中吉", "小吉"};
-        
-        String rating = ratings[fortuneIndex];
-        String ratingText = ratingTexts[fortuneIndex];
-        
-        fortune.put("rating", rating);
-        fortune.put("ratingText", ratingText);
-        
-        // Generate specific fortunes based on rating
-        switch (fortuneIndex) {
-            case 0: // excellent
-                fortune.put("overall", "運気が最高潮に達しています。積極的な行動で大きな成果が期待できるでしょう。");
-                fortune.put("love", "恋愛面で嬉しい出来事が起こりそうです。告白や重要な話し合いに良い日です。");
-                fortune.put("work", "仕事では大きなチャンスが訪れるかもしれません。自信を持って取り組みましょう。");
-                fortune.put("health", "体調も良好で、エネルギーに満ちあふれています。");
-                break;
-            case 1: // good
-                fortune.put("overall", "安定した運気で、計画していたことを進めるのに適しています。");
-                fortune.put("love", "穏やかな恋愛運です。相手との関係を深めるのに良い日でしょう。");
-                fortune.put("work", "着実に成果を上げることができそうです。丁寧な作業を心がけましょう。");
-                fortune.put("health", "健康状態は良好です。適度な運動を取り入れるとさらに良いでしょう。");
-                break;
-            case 2: // average
-                fortune.put("overall", "普通の運気です。無理をせず、現状維持を心がけると良いでしょう。");
-                fortune.put("love", "恋愛面では特に大きな変化はありませんが、小さな心遣いが大切です。");
-                fortune.put("work", "地道な努力が後々実を結ぶでしょう。焦らず着実に進めてください。");
-                fortune.put("health", "体調管理に注意が必要です。十分な休息を取りましょう。");
-                break;
-            case 3: // poor
-                fortune.put("overall", "少し運気が下がり気味です。新しいことは避け、慎重に行動しましょう。");
-                fortune.put("love", "恋愛面では誤解が生じやすい日です。コミュニケーションを大切にしてください。");
-                fortune.put("work", "仕事では思わぬトラブルが発生するかもしれません。冷静な対応を心がけましょう。");
-                fortune.put("health", "疲れが溜まりやすい日です。無理をせず、早めの休息を取りましょう。");
-                break;
-        }
-        
-        return fortune;
+    private boolean acceptsGzip(Http.Request request) {
+        return resultPageCache.isGzipEnabled()
+            && HttpCaching.acceptsGzip(request.header(Http.HeaderNames.ACCEPT_ENCODING));
     }
 
-    /**
-     * Generate name fortune based on stroke counts (simplified).
-     */
-    private Map<String, String> generateNameFortune(NameFortuneData data) {
-        Map<String, String> fortune = new HashMap<>();
-        
-        // Calculate stroke counts
-        int familyNameStrokes = calculateStrokes(data.familyName);
-        int givenNameStrokes = calculateStrokes(data.givenName);
-        
-        // Calculate traditional name divination numbers
-        int tenKaku = familyNameStrokes;  // Heaven number (姓の画数)
-        int chiKaku = givenNameStrokes;   // Earth number (名の画数)
-        int soKaku = familyNameStrokes + givenNameStrokes;  // Total number (総画数)
-        
-        // Simplified jinKaku calculation (person number)
-        // In real name divination, this would be more complex
-        int jinKaku = (tenKaku % 10) + (chiKaku % 10);
-        if (jinKaku > 20) jinKaku = jinKaku - 10;
-        
-        // Store basic information
-        fortune.put("familyNameStrokes", String.valueOf(familyNameStrokes));
-        fortune.put("givenNameStrokes", String.valueOf(givenNameStrokes));
-        fortune.put("tenKaku", String.valueOf(tenKaku));
-        fortune.put("jinKaku", String.valueOf(jinKaku));
-        fortune.put("chiKaku", String.valueOf(chiKaku));
-        fortune.put("soKaku", String.valueOf(soKaku));
-        
-        // Generate fortune based on stroke counts
-        generateStrokeFortune(fortune, soKaku, data.gender);
-        
-        return fortune;
+    private FortuneData bindFortune(FormFields fields) {
+        long start = System.nanoTime();
+        FortuneData data = FortuneData.bind(fields);
+        fortuneTimers.getBinding().recordSince(start);
+        return data;
     }
-    
+
+    private NameFortuneData bindNameFortune(FormFields fields) {
+        long start = System.nanoTime();
+        NameFortuneData data = NameFortuneData.bind(fields);
+        nameFortuneTimers.getBinding().recordSince(start);
+        return data;
+    }
+
     /**
-     * Calculate stroke count for Japanese characters (simplified).
-     * In a real implementation, this would use a comprehensive stroke count database.
+     * Compute and render the four pillars result page, from the page cache when enabled,
+     * and log the request that started at {@code actionStart}.
      */
-    private int calculateStrokes(String text) {
-        if (text == null || text.isEmpty()) {
-            return 0;
-        }
-        
-        // Basic stroke count mapping for common characters
-        Map<Character, Integer> strokeMap = createStrokeMap();
-        
-        int totalStrokes = 0;
-        for (char c : text.toCharArray()) {
-            Integer strokes = strokeMap.get(c);
-            if (strokes != null) {
-                totalStrokes += strokes;
-            } else {
-                // Default stroke count for unmapped characters (based on complexity)
-                if (isKanji(c)) {
-                    totalStrokes += estimateKanjiStrokes(c);
-                } else if (isHiragana(c)) {
-                    totalStrokes += 3; // Average for hiragana
-                } else if (isKatakana(c)) {
-                    totalStrokes += 3; // Average for katakana
-                } else {
-                    totalStrokes += 1; // Default for other characters
-                }
-            }
+    private Result renderFortune(FortuneData data, FortuneWeek week, boolean gzip, long actionStart) {
+        // Compute the birth chart and the fortune for the next 7 days
+        long start = System.nanoTime();
+        BirthChart chart = computeChart(data);
+        WeeklyFortune fortuneResults = week.fortuneFor(chart);
+        fortuneTimers.getCompute().recordSince(start);
+        
+        start = System.nanoTime();
+        String birthTime = data.birthTime != null ? data.birthTime : "";
+        Result result;
+        if (resultPageCache.isEnabled()) {
+            result = cachedPage(resultPageCache.fortunePage(
+                data.birthDate, birthTime, data.prefecture, data.gender, chart, fortuneResults, gzip
+            ), gzip);
+        } else {
+            result = ok(fortune.render(
+                data.birthDate,
+                birthTime,
+                data.prefecture,
+                data.gender,
+                chart.getYearPillarName(),
+                chart.getMonthPillarName(),
+                chart.getDayPillarName(),
+                chart.getHourPillarName(),
+                fortuneResults,
+                assetsFinder
+            ));
         }
-        
-        return totalStrokes;
+        fortuneTimers.getRender().recordSince(start);
+        auditLog.record(AuditLog.FORTUNE, fortuneResults.getDay(0).getRating(), 0, null, System.nanoTime() - actionStart);
+        return result;
     }
-    
+
     /**
-     * Create a stroke count mapping for common Japanese characters.
+     * Compute and render the name fortune result page, from the page cache when enabled,
+     * and log the request that started at {@code actionStart}.
      */
-    private Map<Character, Integer> createStrokeMap() {
-        Map<Character, Integer> map = new HashMap<>();
-        
-        // Common family name kanji
-        map.put('田', 5); map.put('中', 4); map.put('佐', 7); map.put('藤', 18);
-        map.put('山', 3); map.put('川', 3); map.put('木', 4); map.put('村', 7);
-        map.put('高', 10); map.put('小', 3); map.put('松', 8); map.put('井', 4);
-        map.put('石', 5); map.put('橋', 16); map.put('林', 8); map.put('森', 12);
-        map.put('清', 11); map.put('水', 4); map.put('金', 8); map.put('銀', 14);
-        map.put('鈴', 13); map.put('伊', 6); map.put('加', 5); map.put('近', 7);
-        map.put('大', 3); map.put('西', 6); map.put('東', 8); map.put('南', 9);
-        map.put('北', 5); map.put('上', 3); map.put('下', 3); map.put('前', 9);
-        map.put('後', 9); map.put('原', 10); map.put('野', 11); map.put('島', 10);
-        map.put('竹', 6); map.put('花', 7); map.put('草', 9); map.put('木', 4);
-        
-        // Common given name kanji
-        map.put('太', 4); map.put('郎', 9); map.put('一', 1); map.put('二', 2);
-        map.put('三', 3); map.put('四', 5); map.put('五', 4); map.put('六', 4);
-        map.put('七', 2); map.put('八', 2); map.put('九', 2); map.put('十', 2);
-        map.put('美', 9); map.put('子', 3); map.put('花', 7); map.put('香', 9);
-        map.put('愛', 13); map.put('恵', 10); map.put('智', 12); map.put('理', 11);
-        map.put('彩', 11); map.put('綾', 14); map.put('真', 10); map.put('純', 10);
-        map.put('明', 8); map.put('光', 6); map.put('正', 5); map.put('和', 8);
-        map.put('雄', 12); map.put('男', 7); map.put('夫', 4); map.put('人', 2);
-        map.put('介', 4); map.put('助', 7); map.put('治', 8); map.put('次', 6);
-        map.put('良', 7); map.put('優', 17); map.put('健', 11); map.put('強', 11);
-        
-        // Hiragana
-        map.put('あ', 3); map.put('い', 2); map.put('う', 2); map.put('え', 2); map.put('お', 3);
-        map.put('か', 3); map.put('き', 3); map.put('く', 2); map.put('け', 3); map.put('こ', 2);
-        map.put('さ', 3); map.put('し', 3); map.put('す', 2); map.put('せ', 3); map.put('そ', 2);
-        map.put('た', 4); map.put('ち', 3); map.put('つ', 3); map.put('て', 3); map.put('と', 2);
-        map.put('な', 4); map.put('に', 3); map.put('ぬ', 2); map.put('ね', 4); map.put('の', 1);
-        map.put('は', 3); map.put('ひ', 2); map.put('ふ', 4); map.put('へ', 1); map.put('ほ', 4);
-        map.put('ま', 3); map.put('み', 3); map.put('む', 3); map.put('め', 2); map.put('も', 3);
-        map.put('や', 3); map.put('ゆ', 2); map.put('よ', 3);
-        map.put('ら', 2); map.put('り', 2); map.put('る', 2); map.put('れ', 2); map.put('ろ', 3);
-        map.put('わ', 2); map.put('ゐ', 3); map.put('ゑ', 3); map.put('を', 3); map.put('ん', 1);
-        
-        // Katakana (basic mapping similar to hiragana)
-        map.put('ア', 2); map.put('イ', 2); map.put('ウ', 3); map.put('エ', 3); map.put('オ', 3);
-        map.put('カ', 3); map.put('キ', 3); map.put('ク', 2); map.put('ケ', 3); map.put('コ', 2);
-        map.put('サ', 3); map.put('シ', 3); map.put('ス', 2); map.put('セ', 3); map.put('ソ', 2);
-        map.put('タ', 3); map.put('チ', 3); map.put('ツ', 3); map.put('テ', 3); map.put('ト', 2);
-        map.put('ナ', 2); map.put('ニ', 2); map.put('ヌ', 2); map.put('ネ', 4); map.put('ノ', 1);
-        map.put('ハ', 3); map.put('ヒ', 2); map.put('フ', 4); map.put('ヘ', 1); map.put('ホ', 4);
-        map.put('マ', 2); map.put('ミ', 3); map.put('ム', 2); map.put('メ', 2); map.put('モ', 3);
-        map.put('ヤ', 3); map.put('ユ', 2); map.put('ヨ', 3);
-        map.put('ラ', 2); map.put('リ', 2); map.put('ル', 2); map.put('レ', 2); map.put('ロ', 3);
-        map.put('ワ', 2); map.put('ヰ', 3); map.put('ヱ', 3); map.put('ヲ', 3); map.put('ン', 1);
-        
-        return map;
+    private Result renderNameFortune(NameFortuneData data, boolean gzip, long actionStart) {
+        // Generate name fortune based on stroke counts (cached per normalized name)
+        long start = System.nanoTime();
+        NameFortune fortuneResults = nameFortuneCache.get(
+            data.familyName, data.givenName, nameFortuneEngine::generateNameFortune
+        );
+        nameFortuneTimers.getCompute().recordSince(start);
+        
+        start = System.nanoTime();
+        Result result;
+        if (resultPageCache.isEnabled()) {
+            result = cachedPage(resultPageCache.nameFortunePage(
+                data.familyName, data.givenName, data.gender, fortuneResults, gzip
+            ), gzip);
+        } else {
+            result = ok(name_fortune_result.render(
+                data.familyName,
+                data.givenName,
+                data.gender,
+                fortuneResults,
+                assetsFinder
+            ));
+        }
+        nameFortuneTimers.getRender().recordSince(start);
+        auditLog.record(AuditLog.NAME_FORTUNE, fortuneResults.getStrokeFortune().getRating(), fortuneResults.getSoKaku(),
+            NameFortuneEngine.normalize(data.familyName), System.nanoTime() - actionStart);
+        return result;
     }
-    
+
     /**
-     * Check if character is kanji.
+     * Response to a matching If-None-Match. It varies by Accept-Encoding
+     * like the page itself, since the ETag does.
      */
-    private boolean isKanji(char c) {
-        return (c >= 0x4E00 && c <= 0x9FAF) || (c >= 0x3400 && c <= 0x4DBF);
+    private Result notModified(String etag, String cacheControl) {
+        Result result = status(NOT_MODIFIED).withHeaders(Http.HeaderNames.ETAG, etag, Http.HeaderNames.CACHE_CONTROL, cacheControl);
+        if (resultPageCache.isGzipEnabled()) {
+            result = result.withHeader(Http.HeaderNames.VARY, Http.HeaderNames.ACCEPT_ENCODING);
+        }
+        return result;
     }
-    
+
     /**
-     * Check if character is hiragana.
+     * Response for a page assembled by the page cache.
      */
-    private boolean isHiragana(char c) {
-        return c >= 0x3040 && c <= 0x309F;
+    private Result cachedPage(byte[] body, boolean gzip) {
+        Result result = ok(body).as("text/html; charset=utf-8");
+        if (resultPageCache.isGzipEnabled()) {
+            result = result.withHeader(Http.HeaderNames.VARY, Http.HeaderNames.ACCEPT_ENCODING);
+        }
+        return gzip ? result.withHeader(Http.HeaderNames.CONTENT_ENCODING, "gzip") : result;
     }
-    
+
     /**
-     * Check if character is katakana.
+     * Compute the birth chart; the hour pillar is left out when the birth time is missing or malformed.
      */
-    private boolean isKatakana(char c) {
-        return c >= 0x30A0 && c <= 0x30FF;
+    private BirthChart computeChart(FortuneData data) {
+        return chart(fourPillarsEngine, LocalDate.parse(data.birthDate), data.birthTime, data.prefecture);
     }
-    
+
     /**
-     * Estimate stroke count for unmapped kanji characters.
+     * The birth chart for the inputs of a result page or API record; an empty
+     * or unreadable birth time is treated as unknown.
+     *
+     * @throws IllegalArgumentException if the birth date is outside the engine's range
      */
-    private int estimateKanjiStrokes(char c) {
-        // Very simplified estimation based on Unicode code point
-        int codePoint = (int) c;
-        if (codePoint < 0x5000) return 4;  // Simple kanji
-        else if (codePoint < 0x7000) return 8;  // Medium complexity
-        else if (codePoint < 0x8000) return 12; // Complex kanji
-        else return 16; // Very complex kanji
+    static BirthChart chart(FourPillarsEngine engine, LocalDate birthDate, String birthTime, String prefecture) {
+        LocalTime time = null;
+        if (birthTime != null && !birthTime.isEmpty()) {
+            try {
+                time = LocalTime.parse(birthTime);
+            } catch (DateTimeParseException e) {
+                // Treated like an unknown birth time
+            }
+        }
+        return engine.chart(birthDate, time, prefecture);
     }
-    
+
     /**
-     * Generate fortune interpretations based on stroke counts.
+     * Whether the value is a yyyy-MM-dd date within the engine's range.
      */
-    private void generateStrokeFortune(Map<String, String> fortune, int totalStrokes, String gender) {
-        // Determine fortune based on total strokes (simplified system)
-        int fortuneIndex = totalStrokes % 4;
-        
-        String[] ratings = {"excellent", "good", "average", "poor"};
-        String[] ratingTexts = {"大吉", "吉", "中吉", "小吉"};
-        
-        String rating = ratings[fortuneIndex];
-        String ratingText = ratingTexts[fortuneIndex];
-        
-        // Apply same rating to all categories for simplicity
-        fortune.put("overallRating", rating);
-        fortune.put("overallRatingText", ratingText);
-        fortune.put("loveRating", rating);
-        fortune.put("loveRatingText", ratingText);
-        fortune.put("workRating", rating);
-        fortune.put("workRatingText", ratingText);
-        fortune.put("healthRating", rating);
-        fortune.put("healthRatingText", ratingText);
-        
-        // Generate fortune messages based on rating
-        switch (fortuneIndex) {
-            case 0: // excellent
-                fortune.put("overallFortune", "画数から見て非常に良い運勢を持っています。積極的に行動することで大きな成果を得られるでしょう。");
-                fortune.put("loveFortune", "恋愛面では非常に恵まれた運勢です。理想的な相手と出会える可能性が高いでしょう。");
-                fortune.put("workFortune", "仕事運が非常に良く、昇進や成功のチャンスに恵まれます。リーダーシップを発揮しましょう。");
-                fortune.put("healthFortune", "健康運も良好で、体力に恵まれています。スポーツなどで才能を発揮できるでしょう。");
-                fortune.put("advice", "あなたの名前は非常に良い画数を持っています。自信を持って積極的に行動することで、人生の多くの分野で成功を収めることができるでしょう。");
-                break;
-            case 1: // good
-                fortune.put("overallFortune", "安定した良い運勢を持っています。着実な努力により確実に成果を上げることができます。");
-                fortune.put("loveFortune", "恋愛運は安定しており、誠実な関係を築くことができます。結婚運にも恵まれています。");
-                fortune.put("workFortune", "仕事では堅実な成果を上げることができます。コツコツとした努力が報われるでしょう。");
-                fortune.put("healthFortune", "健康面は安定しており、大きな病気の心配は少ないでしょう。規則正しい生活を心がけましょう。");
-                fortune.put("advice", "あなたの名前は安定した良い画数を示しています。急がず着実に目標に向かって進むことで、確実に成功を手にすることができます。");
-                break;
-            case 2: // average
-                fortune.put("overallFortune", "平均的な運勢ですが、努力次第で運勢を向上させることができます。諦めずに頑張りましょう。");
-                fortune.put("loveFortune", "恋愛面では平凡ですが、相手を思いやる気持ちを大切にすることで良い関係を築けます。");
-                fortune.put("workFortune", "仕事では地道な努力が必要ですが、継続することで必ず結果がついてきます。");
-                fortune.put("healthFortune", "健康面では特に問題ありませんが、生活習慣に気をつけることが大切です。");
-                fortune.put("advice", "あなたの名前は平均的な画数を持っています。運勢は努力次第で向上します。前向きな気持ちを持ち続けることが成功の鍵です。");
-                break;
-            case 3: // poor
-                fortune.put("overallFortune", "やや困難な運勢ですが、困難を乗り越えることで大きく成長できます。諦めない心が大切です。");
-                fortune.put("loveFortune", "恋愛面では試練がありますが、真の愛を見つけることで幸せを掴むことができます。");
-                fortune.put("workFortune", "仕事では苦労することもありますが、その経験が将来の大きな財産となります。");
-                fortune.put("healthFortune", "健康面では注意が必要です。ストレス管理と規則正しい生活を心がけましょう。");
-                fortune.put("advice", "あなたの名前は試練を示す画数を持っていますが、それは成長の機会でもあります。困難に負けず、前向きに取り組むことで必ず道は開けます。");
-                break;
+    static boolean isBirthDate(String value) {
+        if (value == null || value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return false;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < FourPillarsEngine.MIN_YEAR || year > FourPillarsEngine.MAX_YEAR || month < 1 || month > 12) {
+            return false;
+        }
+        return day >= 1 && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    private static int digits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
         }
+        return result;
     }
 
     /**
@@ -439,6 +379,24 @@ public class HomeController extends Controller {
         public String prefecture;
         public String gender;
         
+        /**
+         * Binds the form fields, or returns null if `birthDate` is not a
+         * yyyy-MM-dd date between {@link FourPillarsEngine#MIN_YEAR} and
+         * {@link FourPillarsEngine#MAX_YEAR}.
+         */
+        public static FortuneData bind(FormFields fields) {
+            String birthDate = fields.get("birthDate");
+            if (!isBirthDate(birthDate)) {
+                return null;
+            }
+            FortuneData data = new FortuneData();
+            data.birthDate = birthDate;
+            data.birthTime = fields.get("birthTime");
+            data.prefecture = fields.get("prefecture");
+            data.gender = fields.get("gender");
+            return data;
+        }
+        
         // Getters and setters
         public String getBirthDate() { return birthDate; }
         public void setBirthDate(String birthDate) { this.birthDate = birthDate; }
@@ -461,6 +419,22 @@ public class HomeController extends Controller {
         public String givenName;
         public String gender;
         
+        /**
+         * Binds the form fields, or returns null if either name is blank.
+         */
+        public static NameFortuneData bind(FormFields fields) {
+            String familyName = fields.get("familyName");
+            String givenName = fields.get("givenName");
+            if (familyName == null || familyName.isBlank() || givenName == null || givenName.isBlank()) {
+                return null;
+            }
+            NameFortuneData data = new NameFortuneData();
+            data.familyName = familyName;
+            data.givenName = givenName;
+            data.gender = fields.get("gender");
+            return data;
+        }
+        
         // Getters and setters
         public String getFamilyName() { return familyName; }
         public void setFamilyName(String familyName) { this.familyName = familyName; }
@@ -0,0 +1,109 @@
+package controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Strong ETags and conditional request handling for result pages.
+ */
+final class HttpCaching {
+
+    /** Number of SHA-256 bytes kept in an ETag (128 bits). */
+    private static final int ETAG_BYTES = 16;
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Strong ETag over everything that determines a response.
+     * Parts are separated by NUL so ("ab", "c") and ("a", "bc") differ.
+     */
+    static String etag(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every JVM", e);
+        }
+        for (String part : parts) {
+            if (part != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        byte[] hash = digest.digest();
+        byte[] truncated = new byte[ETAG_BYTES];
+        System.arraycopy(hash, 0, truncated, 0, ETAG_BYTES);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(truncated) + '"';
+    }
+
+    /**
+     * Whether an If-None-Match header matches the ETag (weak comparison, RFC 9110 13.1.2).
+     */
+    static boolean notModified(Optional<String> ifNoneMatch, String etag) {
+        if (!ifNoneMatch.isPresent()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.get().split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ETag of the gzip-encoded variant of a response with the given ETag.
+     */
+    static String gzipVariant(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (a q-value of 0 refuses it).
+     */
+    static boolean acceptsGzip(Optional<String> acceptEncoding) {
+        if (!acceptEncoding.isPresent()) {
+            return false;
+        }
+        for (String coding : acceptEncoding.get().split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String qValue) {
+        try {
+            return Double.parseDouble(qValue) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cache-Control for a response that is valid for the given number of seconds.
+     */
+    static String maxAge(long seconds) {
+        return "public, max-age=" + seconds;
+    }
+}
@@ -0,0 +1,46 @@
+package controllers;
+
+import com.typesafe.config.Config;
+import play.mvc.*;
+import services.FortuneMetrics;
+
+import javax.inject.Inject;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Exposes request and action metrics for Prometheus.
+ */
+public class MetricsController extends Controller {
+
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final FortuneMetrics metrics;
+    private final boolean localOnly;
+
+    @Inject
+    public MetricsController(FortuneMetrics metrics, Config config) {
+        this.metrics = metrics;
+        this.localOnly = config.getBoolean("fortune.metrics.localOnly");
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text format.
+     * Unless `fortune.metrics.localOnly` is off, only loopback clients may read them.
+     */
+    public Result metrics(Http.Request request) {
+        if (localOnly && !isLoopback(request.remoteAddress())) {
+            return notFound();
+        }
+        return ok(metrics.toPrometheusText()).as(PROMETHEUS_TEXT);
+    }
+
+    static boolean isLoopback(String address) {
+        try {
+            // remoteAddress is always an IP literal, so this does not resolve names
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
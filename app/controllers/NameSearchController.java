@@ -0,0 +1,112 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
+import fortune.GivenNameIndex;
+import fortune.NameFortuneEngine;
+import models.NameCandidate;
+import models.NameFortune;
+import models.Rating;
+import play.libs.Json;
+import play.mvc.*;
+import services.FortuneExecutionContext;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reverse name search: lucky given names for a family name.
+ */
+public class NameSearchController extends Controller {
+
+    private final GivenNameIndex givenNameIndex;
+    private final FortuneExecutionContext fortuneExecutionContext;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    @Inject
+    public NameSearchController(GivenNameIndex givenNameIndex, FortuneExecutionContext fortuneExecutionContext,
+                                Config config) {
+        this.givenNameIndex = givenNameIndex;
+        this.fortuneExecutionContext = fortuneExecutionContext;
+        this.defaultLimit = config.getInt("fortune.nameSearch.defaultLimit");
+        this.maxLimit = config.getInt("fortune.nameSearch.maxLimit");
+    }
+
+    /**
+     * Returns the best-scoring given names from the dictionary for the
+     * `familyName` query parameter, as JSON. Optional parameters: `gender`
+     * (male or female), `length` (characters), `kanaOnly`, `contains`
+     * (characters the name must include), `minScore` and `limit`.
+     */
+    public CompletionStage<Result> search(Http.Request request) {
+        String familyName = NameFortuneEngine.normalize(request.queryString("familyName").orElse(""));
+        if (familyName.isEmpty()) {
+            return CompletableFuture.completedFuture(error("familyName is required"));
+        }
+        String gender = request.queryString("gender").orElse("");
+        int genderMask = "male".equals(gender) ? GivenNameIndex.MALE
+            : "female".equals(gender) ? GivenNameIndex.FEMALE : GivenNameIndex.ANY_GENDER;
+        String contains = NameFortuneEngine.normalize(request.queryString("contains").orElse(""));
+        boolean kanaOnly = "true".equals(request.queryString("kanaOnly").orElse("false"));
+        int length;
+        int minScore;
+        int limit;
+        try {
+            length = intParameter(request, "length", 0);
+            minScore = intParameter(request, "minScore", 0);
+            limit = intParameter(request, "limit", defaultLimit);
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(error("length, minScore and limit must be numbers"));
+        }
+        if (length < 0) {
+            return CompletableFuture.completedFuture(error("length must not be negative"));
+        }
+        if (limit < 1 || limit > maxLimit) {
+            return CompletableFuture.completedFuture(error("limit must be between 1 and " + maxLimit));
+        }
+
+        int searchLength = length;
+        int searchMinScore = minScore;
+        int searchLimit = limit;
+        return CompletableFuture.supplyAsync(() -> {
+            List<NameCandidate> candidates = givenNameIndex.search(
+                familyName, genderMask, searchLength, kanaOnly, contains, searchMinScore, searchLimit);
+            return ok(toJson(familyName, candidates));
+        }, fortuneExecutionContext);
+    }
+
+    private static int intParameter(Http.Request request, String name, int defaultValue) {
+        Optional<String> value = request.queryString(name).filter(v -> !v.isEmpty());
+        return value.isPresent() ? Integer.parseInt(value.get()) : defaultValue;
+    }
+
+    private static ObjectNode toJson(String familyName, List<NameCandidate> candidates) {
+        ObjectNode result = Json.newObject();
+        result.put("familyName", familyName);
+        ArrayNode array = result.putArray("candidates");
+        for (NameCandidate candidate : candidates) {
+            NameFortune fortune = candidate.getFortune();
+            Rating rating = fortune.getStrokeFortune().getRating();
+            array.addObject()
+                .put("givenName", candidate.getGivenName())
+                .put("score", candidate.getScore())
+                .put("tenKaku", fortune.getTenKaku())
+                .put("jinKaku", fortune.getJinKaku())
+                .put("chiKaku", fortune.getChiKaku())
+                .put("gaiKaku", fortune.getGaiKaku())
+                .put("soKaku", fortune.getSoKaku())
+                .put("rating", rating.getKey())
+                .put("ratingText", rating.getText());
+        }
+        return result;
+    }
+
+    private static Result error(String message) {
+        return badRequest(Json.newObject().put("error", message));
+    }
+}
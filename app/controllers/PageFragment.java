@@ -0,0 +1,73 @@
+package controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * A piece of a response body, encoded to UTF-8 once.
+ *
+ * Cached fragments can also carry their DEFLATE encoding, ending on a
+ * byte boundary (sync flush) so that independently compressed
+ * fragments can be concatenated into one gzip stream.
+ */
+final class PageFragment {
+
+    private final byte[] utf8;
+    private final byte[] deflated;
+
+    private PageFragment(byte[] utf8, byte[] deflated) {
+        this.utf8 = utf8;
+        this.deflated = deflated;
+    }
+
+    /**
+     * A fragment that is cached, compressed up front when {@code gzip} is set.
+     */
+    static PageFragment of(String text, boolean gzip) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        return new PageFragment(utf8, gzip ? deflate(utf8) : null);
+    }
+
+    /**
+     * A per-request fragment (e.g. an escaped input); stored uncompressed in gzip output.
+     */
+    static PageFragment dynamic(String text) {
+        return new PageFragment(text.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    byte[] utf8() {
+        return utf8;
+    }
+
+    /**
+     * Raw DEFLATE blocks of this fragment, or null if it was not compressed.
+     */
+    byte[] deflated() {
+        return deflated;
+    }
+
+    /**
+     * Bytes held by this fragment.
+     */
+    int sizeInBytes() {
+        return utf8.length + (deflated != null ? deflated.length : 0);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            int n;
+            do {
+                n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, n);
+            } while (n == buffer.length);
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
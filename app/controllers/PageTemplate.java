@@ -0,0 +1,193 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A rendered page split into static fragments and slots.
+ *
+ * The page is rendered once by its Twirl template with marker strings
+ * in place of the per-request values; the text between markers is
+ * kept as cached {@link PageFragment}s. A response is assembled by
+ * copying the fragments and the slot values, without running the
+ * template.
+ */
+final class PageTemplate {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /** Empty final block with fixed Huffman codes; terminates the DEFLATE stream. */
+    private static final byte[] FINAL_BLOCK = {0x03, 0x00};
+
+    /** Largest payload of a stored DEFLATE block. */
+    private static final int MAX_STORED_BLOCK = 0xffff;
+
+    private final PageFragment[] segments;
+    private final int[] slots;
+
+    private PageTemplate(PageFragment[] segments, int[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Splits rendered HTML at every occurrence of the markers. Slot numbers
+     * are the markers' positions in the argument list; a marker may occur
+     * any number of times, or not at all.
+     */
+    static PageTemplate compile(String html, boolean gzip, String... markers) {
+        List<PageFragment> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int next = -1;
+            int slot = -1;
+            for (int i = 0; i < markers.length; i++) {
+                int index = html.indexOf(markers[i], position);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    slot = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            segments.add(PageFragment.of(html.substring(position, next), gzip));
+            slots.add(slot);
+            position = next + markers[slot].length();
+        }
+        segments.add(PageFragment.of(html.substring(position), gzip));
+        return new PageTemplate(
+            segments.toArray(new PageFragment[0]),
+            slots.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    /**
+     * The content of a template without slots.
+     */
+    PageFragment content() {
+        if (slots.length > 0) {
+            throw new IllegalStateException("Template has " + slots.length + " slots");
+        }
+        return segments[0];
+    }
+
+    /**
+     * Bytes held by this template.
+     */
+    int sizeInBytes() {
+        int size = slots.length * 4;
+        for (PageFragment segment : segments) {
+            size += segment.sizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Assembles the UTF-8 page; {@code values[slot]} are the fragments written for each slot.
+     */
+    byte[] render(PageFragment[][] values) {
+        int length = 0;
+        for (int i = 0; i < segments.length; i++) {
+            length += segments[i].utf8().length;
+            if (i < slots.length) {
+                for (PageFragment value : values[slots[i]]) {
+                    length += value.utf8().length;
+                }
+            }
+        }
+        byte[] page = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < segments.length; i++) {
+            offset = copy(segments[i].utf8(), page, offset);
+            if (i < slots.length) {
+                for (PageFragment value : values[slots[i]]) {
+                    offset = copy(value.utf8(), page, offset);
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Assembles the gzip-encoded page from the precompressed fragments.
+     * Fragments without a DEFLATE encoding are written as stored blocks.
+     */
+    byte[] renderGzip(PageFragment[][] values) {
+        GzipWriter writer = new GzipWriter();
+        for (int i = 0; i < segments.length; i++) {
+            writer.write(segments[i]);
+            if (i < slots.length) {
+                for (PageFragment value : values[slots[i]]) {
+                    writer.write(value);
+                }
+            }
+        }
+        return writer.finish();
+    }
+
+    private static int copy(byte[] source, byte[] target, int offset) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+
+    /**
+     * Writes a single-member gzip stream out of DEFLATE fragments.
+     */
+    private static final class GzipWriter {
+        private final CRC32 crc = new CRC32();
+        private byte[] buffer = new byte[16 * 1024];
+        private int length;
+        private long inputSize;
+
+        GzipWriter() {
+            append(GZIP_HEADER, 0, GZIP_HEADER.length);
+        }
+
+        void write(PageFragment fragment) {
+            byte[] utf8 = fragment.utf8();
+            crc.update(utf8, 0, utf8.length);
+            inputSize += utf8.length;
+            if (fragment.deflated() != null) {
+                append(fragment.deflated(), 0, fragment.deflated().length);
+                return;
+            }
+            for (int offset = 0; offset < utf8.length; offset += MAX_STORED_BLOCK) {
+                int blockLength = Math.min(MAX_STORED_BLOCK, utf8.length - offset);
+                // BFINAL=0, BTYPE=00 (stored); the stream is byte-aligned after a sync flush
+                byte[] header = {
+                    0,
+                    (byte) blockLength, (byte) (blockLength >>> 8),
+                    (byte) ~blockLength, (byte) (~blockLength >>> 8)
+                };
+                append(header, 0, header.length);
+                append(utf8, offset, blockLength);
+            }
+        }
+
+        byte[] finish() {
+            append(FINAL_BLOCK, 0, FINAL_BLOCK.length);
+            long value = crc.getValue();
+            byte[] trailer = {
+                (byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24),
+                (byte) inputSize, (byte) (inputSize >>> 8), (byte) (inputSize >>> 16), (byte) (inputSize >>> 24)
+            };
+            append(trailer, 0, trailer.length);
+            byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        }
+
+        private void append(byte[] source, int offset, int count) {
+            if (length + count > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, length + count)];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+            System.arraycopy(source, offset, buffer, length, count);
+            length += count;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package controllers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.typesafe.config.Config;
+import models.BirthChart;
+import models.DailyFortune;
+import models.NameFortune;
+import models.Rating;
+import models.StrokeFortune;
+import models.WeeklyFortune;
+import play.twirl.api.HtmlFormat;
+import services.FortuneMetrics;
+import views.html.fortune;
+import views.html.fortune_day;
+import views.html.name_fortune_result;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-rendered result pages, assembled per request without running Twirl.
+ *
+ * The pages only vary by a handful of template branches (gender,
+ * whether a birth time and hour pillar are known, the rating) plus the
+ * echoed inputs, the birth chart
+ * and, for four pillars, one of 4 ratings for each of the 7 day cards.
+ * Each branch combination is rendered once into a {@link PageTemplate}
+ * and each day card once per date and rating; the output is identical
+ * to rendering the templates. Entries are weighed by their byte size,
+ * bounded by `fortune.pageCache.maximumBytes` and reported on /metrics.
+ */
+@Singleton
+public class ResultPageCache {
+
+    // Markers in the private use area pass through HTML escaping unchanged
+    private static final String BIRTH_DATE = "\uE000birthDate\uE000";
+    private static final String BIRTH_TIME = "\uE000birthTime\uE000";
+    private static final String PREFECTURE = "\uE000prefecture\uE000";
+    private static final String YEAR_PILLAR = "\uE000yearPillar\uE000";
+    private static final String MONTH_PILLAR = "\uE000monthPillar\uE000";
+    private static final String DAY_PILLAR = "\uE000dayPillar\uE000";
+    private static final String HOUR_PILLAR = "\uE000hourPillar\uE000";
+    private static final String DAYS = "\uE000days\uE000";
+    private static final String FAMILY_NAME = "\uE000familyName\uE000";
+    private static final String GIVEN_NAME = "\uE000givenName\uE000";
+
+    // Numbers are rendered by the template without escaping, so unlikely values mark their slots
+    private static final int FAMILY_STROKES = 1_900_000_001;
+    private static final int GIVEN_STROKES = 1_900_000_002;
+    private static final int TEN_KAKU = 1_900_000_003;
+    private static final int JIN_KAKU = 1_900_000_004;
+    private static final int CHI_KAKU = 1_900_000_005;
+    private static final int SO_KAKU = 1_900_000_006;
+    private static final int GAI_KAKU = 1_900_000_007;
+
+    private static final PageFragment[] PILLAR_NAMES = new PageFragment[60];
+
+    static {
+        for (int i = 0; i < PILLAR_NAMES.length; i++) {
+            PILLAR_NAMES[i] = PageFragment.dynamic(BirthChart.pillarName(i));
+        }
+    }
+
+    /** Fixed per-entry overhead added to the byte size when weighing. */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final AssetsFinder assetsFinder;
+    private final Cache<String, PageTemplate> cache;
+    private final boolean gzip;
+
+    @Inject
+    public ResultPageCache(AssetsFinder assetsFinder, Config config, FortuneMetrics metrics) {
+        this.assetsFinder = assetsFinder;
+        Config cacheConfig = config.getConfig("fortune.pageCache");
+        if (cacheConfig.getBoolean("enabled")) {
+            this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheConfig.getBytes("maximumBytes"))
+                .weigher((String key, PageTemplate page) -> key.length() * 2 + page.sizeInBytes() + ENTRY_OVERHEAD)
+                .expireAfterAccess(cacheConfig.getDuration("expireAfterAccess", TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+            this.gzip = cacheConfig.getBoolean("gzip");
+            metrics.gauge("fortune_page_cache_bytes", "Bytes held by the result page cache.", this::weightedSize);
+            metrics.gauge("fortune_page_cache_entries", "Templates and fragments in the result page cache.", cache::estimatedSize);
+            metrics.counter("fortune_page_cache_hits_total", "Result page cache hits.", () -> cache.stats().hitCount());
+            metrics.counter("fortune_page_cache_misses_total", "Result page cache misses.", () -> cache.stats().missCount());
+        } else {
+            this.cache = null;
+            this.gzip = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Whether pages can be served gzip-encoded from precompressed fragments.
+     */
+    public boolean isGzipEnabled() {
+        return gzip;
+    }
+
+    /**
+     * Current weighed size of the cache in bytes.
+     */
+    public long weightedSize() {
+        return cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * The four pillars result page, as UTF-8 or (if {@code gzipped}) gzip bytes.
+     */
+    public byte[] fortunePage(String birthDate, String birthTime, String prefecture, String gender,
+                              BirthChart chart, WeeklyFortune weeklyFortune, boolean gzipped) {
+        boolean male = "male".equals(gender);
+        boolean hasBirthTime = !birthTime.isEmpty();
+        boolean hasHourPillar = chart.hasHourPillar();
+        PageTemplate page = cache.get("fortune|" + male + '|' + hasBirthTime + '|' + hasHourPillar, key -> {
+            DailyFortune sampleDay = DailyFortune.of(Rating.EXCELLENT);
+            String card = fortune_day.render(DAYS, sampleDay).body();
+            String html = fortune.render(
+                BIRTH_DATE, hasBirthTime ? BIRTH_TIME : "", PREFECTURE, male ? "male" : "female",
+                YEAR_PILLAR, MONTH_PILLAR, DAY_PILLAR, hasHourPillar ? HOUR_PILLAR : "",
+                new WeeklyFortune(new String[] {DAYS}, new DailyFortune[] {sampleDay}),
+                assetsFinder
+            ).body();
+            return PageTemplate.compile(html.replace(card, DAYS), gzip, BIRTH_DATE, BIRTH_TIME, PREFECTURE,
+                YEAR_PILLAR, MONTH_PILLAR, DAY_PILLAR, HOUR_PILLAR, DAYS);
+        });
+
+        PageFragment[] days = new PageFragment[weeklyFortune.size()];
+        for (int i = 0; i < days.length; i++) {
+            String label = weeklyFortune.getDayLabel(i);
+            DailyFortune day = weeklyFortune.getDay(i);
+            days[i] = cache.get("day|" + label + '|' + day.getRating().getKey(),
+                key -> PageTemplate.compile(fortune_day.render(label, day).body(), gzip)).content();
+        }
+
+        PageFragment[][] values = {
+            {escape(birthDate)},
+            {escape(birthTime)},
+            {escape(prefecture)},
+            {pillar(chart.getYearPillar())},
+            {pillar(chart.getMonthPillar())},
+            {pillar(chart.getDayPillar())},
+            {hasHourPillar ? pillar(chart.getHourPillar()) : PageFragment.dynamic("")},
+            days
+        };
+        return gzipped ? page.renderGzip(values) : page.render(values);
+    }
+
+    /**
+     * The name fortune result page, as UTF-8 or (if {@code gzipped}) gzip bytes.
+     */
+    public byte[] nameFortunePage(String familyName, String givenName, String gender,
+                                  NameFortune fortuneData, boolean gzipped) {
+        boolean male = "male".equals(gender);
+        Rating rating = fortuneData.getStrokeFortune().getRating();
+        PageTemplate page = cache.get("name|" + male + '|' + rating.getKey(), key -> {
+            NameFortune sample = new NameFortune(
+                FAMILY_STROKES, GIVEN_STROKES, TEN_KAKU, JIN_KAKU, CHI_KAKU, GAI_KAKU, SO_KAKU,
+                StrokeFortune.of(rating)
+            );
+            String html = name_fortune_result.render(
+                FAMILY_NAME, GIVEN_NAME, male ? "male" : "female", sample, assetsFinder
+            ).body();
+            return PageTemplate.compile(html, gzip,
+                FAMILY_NAME, GIVEN_NAME,
+                Integer.toString(FAMILY_STROKES), Integer.toString(GIVEN_STROKES),
+                Integer.toString(TEN_KAKU), Integer.toString(JIN_KAKU),
+                Integer.toString(CHI_KAKU), Integer.toString(GAI_KAKU), Integer.toString(SO_KAKU));
+        });
+
+        PageFragment[][] values = {
+            {escape(familyName)},
+            {escape(givenName)},
+            {number(fortuneData.getFamilyNameStrokes())},
+            {number(fortuneData.getGivenNameStrokes())},
+            {number(fortuneData.getTenKaku())},
+            {number(fortuneData.getJinKaku())},
+            {number(fortuneData.getChiKaku())},
+            {number(fortuneData.getGaiKaku())},
+            {number(fortuneData.getSoKaku())}
+        };
+        return gzipped ? page.renderGzip(values) : page.render(values);
+    }
+
+    private static PageFragment escape(String value) {
+        return PageFragment.dynamic(HtmlFormat.escape(value).body());
+    }
+
+    private static PageFragment pillar(int pillar) {
+        return PILLAR_NAMES[pillar];
+    }
+
+    private static PageFragment number(int value) {
+        return PageFragment.dynamic(Integer.toString(value));
+    }
+}
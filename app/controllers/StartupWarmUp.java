@@ -0,0 +1,159 @@
+package controllers;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+import play.mvc.Http;
+import play.mvc.Result;
+import services.AuditLog;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends synthetic requests through the result page actions at startup,
+ * configured by `fortune.warmup`.
+ *
+ * Bound as an eager singleton, so it runs while the injector is built,
+ * before the server accepts connections. The requests are built with
+ * {@link Http.RequestBuilder} and passed to {@link HomeController} and
+ * {@link NameSearchController} directly, so form decoding, both engines,
+ * the name fortune cache, the ETag and 304 handling, the name search and
+ * the result templates (or the page cache) are JIT-compiled before the
+ * first real request. The week shown is the one of {@link services.FortuneCalendar}'s
+ * clock, as for real requests. Audit recording is paused meanwhile.
+ * Skipped in test mode.
+ */
+@Singleton
+public class StartupWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private static final String[] PREFECTURES = {"東京都", "大阪府", "北海道", "福岡県", "沖縄県", ""};
+    private static final String[] FAMILY_NAMES = {"佐藤", "鈴木", "高橋", "田中", "林", "渡辺", "さとう", "長谷川"};
+    private static final String[] GIVEN_NAMES = {"太郎", "花子", "健太", "美咲", "翔", "さくら", "ゆうき", "陽菜"};
+    private static final String[] GENDERS = {"male", "female"};
+
+    private final HomeController homeController;
+    private final NameSearchController nameSearchController;
+    private final AuditLog auditLog;
+
+    @Inject
+    public StartupWarmUp(Config config, Environment environment, HomeController homeController,
+                         NameSearchController nameSearchController, AuditLog auditLog) {
+        this.homeController = homeController;
+        this.nameSearchController = nameSearchController;
+        this.auditLog = auditLog;
+        if (config.getBoolean("fortune.warmup.enabled") && !environment.isTest()) {
+            run(config.getInt("fortune.warmup.iterations"),
+                config.getDuration("fortune.warmup.maxDuration", TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Runs up to {@code iterations} synthetic requests of each kind, stopping
+     * early after {@code maxNanos}, and returns the number completed.
+     */
+    public int run(int iterations, long maxNanos) {
+        long start = System.nanoTime();
+        long deadline = start + maxNanos;
+        SplittableRandom random = new SplittableRandom(42);
+        long firstNanos = 0;
+        long lastNanos = 0;
+        int completed = 0;
+        int unexpected = 0;
+        auditLog.setPaused(true);
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                long iterationStart = System.nanoTime();
+                unexpected += fortunePages(random) + nameFortunePages(random);
+                lastNanos = System.nanoTime() - iterationStart;
+                if (completed == 0) {
+                    firstNanos = lastNanos;
+                }
+                completed++;
+            }
+        } finally {
+            auditLog.setPaused(false);
+        }
+        logger.info("Warmed up with {} iterations in {} ms (first {} µs, last {} µs, {} unexpected responses)",
+            completed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            TimeUnit.NANOSECONDS.toMicros(firstNanos), TimeUnit.NANOSECONDS.toMicros(lastNanos), unexpected);
+        return completed;
+    }
+
+    /**
+     * POST /fortune, then GET /fortune and its revalidation; returns the
+     * number of unexpected responses.
+     */
+    private int fortunePages(SplittableRandom random) {
+        LocalDate birthDate = LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+        String birthTime = random.nextInt(3) == 0 ? "" : LocalTime.of(random.nextInt(24), random.nextInt(60)).toString();
+        String fields = "birthDate=" + birthDate
+            + "&birthTime=" + encode(birthTime)
+            + "&prefecture=" + encode(PREFECTURES[random.nextInt(PREFECTURES.length)])
+            + "&gender=" + GENDERS[random.nextInt(GENDERS.length)];
+        boolean gzip = random.nextBoolean();
+        return check(homeController.fortune(post("/fortune", fields, gzip)), Http.Status.OK)
+            + revalidate("/fortune?" + fields, gzip, homeController::fortuneResult);
+    }
+
+    /**
+     * POST /namefortune, GET /namefortune/result and its revalidation, and
+     * the name search; returns the number of unexpected responses.
+     */
+    private int nameFortunePages(SplittableRandom random) {
+        String familyName = encode(FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)]);
+        String fields = "familyName=" + familyName
+            + "&givenName=" + encode(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)])
+            + "&gender=" + GENDERS[random.nextInt(GENDERS.length)];
+        boolean gzip = random.nextBoolean();
+        return check(homeController.nameFortune(post("/namefortune", fields, gzip)), Http.Status.OK)
+            + revalidate("/namefortune/result?" + fields, gzip, homeController::nameFortuneResult)
+            + check(nameSearchController.search(get("/api/namefortunes/search?limit=5&familyName=" + familyName, false)
+                .build()), Http.Status.OK);
+    }
+
+    /**
+     * GETs the page, then again with its ETag, which must be answered 304.
+     */
+    private static int revalidate(String uri, boolean gzip, Function<Http.Request, CompletionStage<Result>> action) {
+        Result page = action.apply(get(uri, gzip).build()).toCompletableFuture().join();
+        if (page.status() != Http.Status.OK) {
+            return 1;
+        }
+        Http.RequestBuilder again = get(uri, gzip);
+        page.header(Http.HeaderNames.ETAG).ifPresent(etag -> again.header(Http.HeaderNames.IF_NONE_MATCH, etag));
+        return check(action.apply(again.build()), Http.Status.NOT_MODIFIED);
+    }
+
+    private static int check(CompletionStage<Result> result, int status) {
+        return result.toCompletableFuture().join().status() == status ? 0 : 1;
+    }
+
+    private static Http.Request post(String uri, String fields, boolean gzip) {
+        return request(gzip).method("POST").uri(uri).body(new Http.RequestBody(FormFields.parse(fields))).build();
+    }
+
+    private static Http.RequestBuilder get(String uri, boolean gzip) {
+        return request(gzip).method("GET").uri(uri);
+    }
+
+    private static Http.RequestBuilder request(boolean gzip) {
+        Http.RequestBuilder request = new Http.RequestBuilder().remoteAddress("127.0.0.1");
+        return gzip ? request.header(Http.HeaderNames.ACCEPT_ENCODING, "gzip") : request;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
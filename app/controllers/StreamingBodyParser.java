@@ -0,0 +1,40 @@
+package controllers;
+
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+import play.libs.F;
+import play.libs.streams.Accumulator;
+import play.mvc.BodyParser;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.util.concurrent.Executor;
+
+/**
+ * A body parser that hands the request body to the action as a stream of
+ * bytes instead of buffering it, for bulk endpoints with large uploads.
+ */
+public class StreamingBodyParser implements BodyParser<Source<ByteString, ?>> {
+
+    private final Executor executor;
+
+    @Inject
+    public StreamingBodyParser(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Accumulator<ByteString, F.Either<Result, Source<ByteString, ?>>> apply(Http.RequestHeader request) {
+        Accumulator<ByteString, Source<ByteString, ?>> body = Accumulator.source();
+        return body.map(F.Either::Right, executor);
+    }
+
+    /**
+     * Returns the streamed body of a request parsed by this parser.
+     */
+    @SuppressWarnings("unchecked")
+    public static Source<ByteString, ?> body(Http.Request request) {
+        return request.body().as(Source.class);
+    }
+}
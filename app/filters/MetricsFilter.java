@@ -0,0 +1,56 @@
+package filters;
+
+import play.mvc.EssentialAction;
+import play.mvc.EssentialFilter;
+import play.mvc.Http;
+import play.routing.Router;
+import services.FortuneMetrics;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Records request counts, error counts and latency per route.
+ *
+ * Routes are labelled with their pattern from the routes file (e.g.
+ * {@code /assets/$file<.+>}), so the number of series stays bounded.
+ */
+@Singleton
+public class MetricsFilter extends EssentialFilter {
+
+    private static final String UNMATCHED = "unmatched";
+
+    private final FortuneMetrics metrics;
+    private final Executor exec;
+
+    @Inject
+    public MetricsFilter(FortuneMetrics metrics, Executor exec) {
+        this.metrics = metrics;
+        this.exec = exec;
+    }
+
+    @Override
+    public EssentialAction apply(EssentialAction next) {
+        return EssentialAction.of(request -> {
+            long start = System.nanoTime();
+            FortuneMetrics.RouteMetrics route = routeOf(request);
+            return next.apply(request)
+                .map(result -> {
+                    route.record(start, result.status() >= 500);
+                    return result;
+                }, exec)
+                .recoverWith(e -> {
+                    route.record(start, true);
+                    return CompletableFuture.failedFuture(e);
+                }, exec);
+        });
+    }
+
+    private FortuneMetrics.RouteMetrics routeOf(Http.RequestHeader request) {
+        return request.attrs().getOptional(Router.Attrs.HANDLER_DEF)
+            .map(handlerDef -> metrics.route(handlerDef.verb(), handlerDef.path()))
+            .orElseGet(() -> metrics.route("*", UNMATCHED));
+    }
+}
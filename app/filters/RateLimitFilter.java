@@ -0,0 +1,92 @@
+package filters;
+
+import com.typesafe.config.Config;
+import play.libs.streams.Accumulator;
+import play.mvc.EssentialAction;
+import play.mvc.EssentialFilter;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+import services.LoadShedder;
+import services.RateLimiter;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protects the fortune result routes (`fortune.rateLimit.routes`) during bursts.
+ *
+ * A client over its token bucket gets 429 and a client arriving while the
+ * adaptive concurrency limit is reached gets 503, both with Retry-After
+ * and without touching the request body, so overload costs a few
+ * atomic operations per request instead of a queue.
+ */
+@Singleton
+public class RateLimitFilter extends EssentialFilter {
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    /** Limited routes as "METHOD /path". */
+    private final Set<String> routes;
+    private final String shedRetryAfter;
+    private final Executor exec;
+
+    @Inject
+    public RateLimitFilter(RateLimiter rateLimiter, LoadShedder loadShedder, Config config, Executor exec) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.routes = new HashSet<>();
+        for (String route : config.getStringList("fortune.rateLimit.routes")) {
+            String[] parts = route.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("fortune.rateLimit.routes entries must be \"METHOD /path\", not " + route);
+            }
+            routes.add(parts[0].toUpperCase() + ' ' + parts[1]);
+        }
+        this.shedRetryAfter = String.valueOf(Math.max(1,
+            config.getDuration("fortune.loadShedding.retryAfter", TimeUnit.SECONDS)));
+        this.exec = exec;
+    }
+
+    @Override
+    public EssentialAction apply(EssentialAction next) {
+        return EssentialAction.of(request -> {
+            if (!routes.contains(request.method() + ' ' + request.path())) {
+                return next.apply(request);
+            }
+            if (rateLimiter.isEnabled()) {
+                long waitMillis = rateLimiter.tryAcquire(request.remoteAddress());
+                if (waitMillis > 0) {
+                    return Accumulator.done(reject(Results.status(Http.Status.TOO_MANY_REQUESTS,
+                        "Too many requests"), String.valueOf((waitMillis + 999) / 1000)));
+                }
+            }
+            if (!loadShedder.isEnabled()) {
+                return next.apply(request);
+            }
+            if (!loadShedder.tryAcquire()) {
+                return Accumulator.done(reject(Results.status(Http.Status.SERVICE_UNAVAILABLE,
+                    "Service busy"), shedRetryAfter));
+            }
+            long start = System.nanoTime();
+            return next.apply(request)
+                .map(result -> {
+                    loadShedder.release(start);
+                    return result;
+                }, exec)
+                .recoverWith(e -> {
+                    loadShedder.release(start);
+                    return CompletableFuture.failedFuture(e);
+                }, exec);
+        });
+    }
+
+    private static Result reject(Result result, String retryAfter) {
+        return result.withHeader(Http.HeaderNames.RETRY_AFTER, retryAfter);
+    }
+}
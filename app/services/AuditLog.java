@@ -0,0 +1,540 @@
+package services;
+
+import com.typesafe.config.Config;
+import models.Rating;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Anonymized log of fortune requests in an embedded H2 database,
+ * configured by `fortune.audit`.
+ *
+ * Request threads only append to a bounded lock-free queue; when it is
+ * full the event is dropped and counted, never waited for. A single
+ * writer thread drains the queue in batches, inserting the raw events
+ * and adding them to daily rollup tables in the same transaction, so
+ * reports read the rollups instead of scanning events.
+ *
+ * Events hold the route, the rating, the stroke total and the latency.
+ * Family names only go into the per-day surname counts, and birth data
+ * and given names are never stored.
+ *
+ * In test mode a file database is replaced by a private in-memory one,
+ * so tests never write to the configured location.
+ */
+@Singleton
+public class AuditLog {
+
+    public static final int FORTUNE = 0;
+    public static final int NAME_FORTUNE = 1;
+
+    private static final String[] ROUTES = {"fortune", "nameFortune"};
+    private static final int MAX_SURNAME_LENGTH = 32;
+    private static final AtomicInteger TEST_DATABASES = new AtomicInteger();
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private final boolean enabled;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int queueSize;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retentionDays;
+    private final Clock clock;
+
+    private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile boolean paused;
+    private volatile boolean schemaCreated;
+    private Connection connection;
+    private LocalDate lastPurge;
+
+    @Inject
+    public AuditLog(Config config, Clock clock, Environment environment, FortuneMetrics metrics,
+                    ApplicationLifecycle lifecycle) {
+        this(config, clock, environment.isTest());
+        metrics.counter("fortune_audit_events_written_total", "Audit events written to the database.", written::sum);
+        metrics.counter("fortune_audit_events_dropped_total", "Audit events dropped because the queue was full.", dropped::sum);
+        metrics.counter("fortune_audit_events_failed_total", "Audit events lost to database errors.", failed::sum);
+        metrics.gauge("fortune_audit_queue_size", "Audit events waiting for the writer.", queued::get);
+        if (enabled) {
+            start();
+            lifecycle.addStopHook(() -> {
+                stop();
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+    }
+
+    AuditLog(Config config, Clock clock) {
+        this(config, clock, false);
+    }
+
+    private AuditLog(Config config, Clock clock, boolean testMode) {
+        Config audit = config.getConfig("fortune.audit");
+        this.enabled = audit.getBoolean("enabled");
+        String url = audit.getString("url");
+        this.url = testMode && !url.startsWith("jdbc:h2:mem:")
+            ? "jdbc:h2:mem:audit-test-" + TEST_DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1"
+            : url;
+        this.user = audit.getString("user");
+        this.password = audit.getString("password");
+        this.queueSize = audit.getInt("queueSize");
+        this.batchSize = audit.getInt("batchSize");
+        this.flushIntervalNanos = audit.getDuration("flushInterval", TimeUnit.NANOSECONDS);
+        this.retentionDays = audit.getDuration("retention", TimeUnit.DAYS);
+        this.clock = clock;
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stops or resumes recording, e.g. around synthetic startup requests.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Queues one request event without blocking.
+     *
+     * @param route         {@link #FORTUNE} or {@link #NAME_FORTUNE}
+     * @param rating        the rating shown to the user
+     * @param strokes       the 総格 of a name fortune, 0 otherwise
+     * @param familyName    the family name of a name fortune, or null
+     * @param latencyNanos  time spent in the action
+     */
+    public void record(int route, Rating rating, int strokes, String familyName, long latencyNanos) {
+        if (!enabled || paused) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueSize) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Event(clock.millis(), route, rating.ordinal(), strokes, surname(familyName),
+            (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+    }
+
+    /**
+     * The family name cut to fit the surname column, at a code point
+     * boundary so that a surrogate pair is never split; null when empty.
+     */
+    static String surname(String familyName) {
+        if (familyName == null || familyName.isEmpty()) {
+            return null;
+        }
+        if (familyName.length() <= MAX_SURNAME_LENGTH) {
+            return familyName;
+        }
+        int end = Character.isHighSurrogate(familyName.charAt(MAX_SURNAME_LENGTH - 1))
+            ? MAX_SURNAME_LENGTH - 1 : MAX_SURNAME_LENGTH;
+        return familyName.substring(0, end);
+    }
+
+    void start() {
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Writes the events still queued and closes the database.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Event event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            queued.addAndGet(-batch.size());
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            if (queued.get() >= batchSize) {
+                continue;
+            }
+            if (!running) {
+                if (queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+        closeConnection();
+    }
+
+    private void write(List<Event> batch) {
+        try {
+            Connection db = connection();
+            try (PreparedStatement insert = db.prepareStatement(
+                "INSERT INTO audit_events (at, route, rating, strokes, latency_micros) VALUES (?, ?, ?, ?, ?)")) {
+                for (Event event : batch) {
+                    insert.setTimestamp(1, new Timestamp(event.at));
+                    insert.setInt(2, event.route);
+                    insert.setInt(3, event.rating);
+                    insert.setInt(4, event.strokes);
+                    insert.setInt(5, event.latencyMicros);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            rollUp(db, batch);
+            purge(db);
+            db.commit();
+            written.add(batch.size());
+        } catch (SQLException e) {
+            logger.warn("Could not write {} audit events", batch.size(), e);
+            failed.add(batch.size());
+            closeConnection();
+        }
+    }
+
+    /**
+     * Adds a batch to the daily rollups, one row update per distinct key.
+     * The writer is the only thread changing them, so update-then-insert is safe.
+     */
+    private void rollUp(Connection db, List<Event> batch) throws SQLException {
+        Map<RatingKey, long[]> ratings = new HashMap<>();
+        Map<SurnameKey, long[]> surnames = new HashMap<>();
+        for (Event event : batch) {
+            LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(event.at), clock.getZone());
+            long[] totals = ratings.computeIfAbsent(new RatingKey(day, event.route, event.rating), k -> new long[2]);
+            totals[0]++;
+            totals[1] += event.latencyMicros;
+            if (event.surname != null) {
+                surnames.computeIfAbsent(new SurnameKey(day, event.surname), k -> new long[1])[0]++;
+            }
+        }
+
+        List<RatingKey> ratingKeys = new ArrayList<>(ratings.keySet());
+        try (PreparedStatement update = db.prepareStatement(
+                "UPDATE audit_rating_daily SET requests = requests + ?, latency_micros = latency_micros + ?"
+                    + " WHERE day = ? AND route = ? AND rating = ?");
+             PreparedStatement insert = db.prepareStatement(
+                 "INSERT INTO audit_rating_daily (requests, latency_micros, day, route, rating) VALUES (?, ?, ?, ?, ?)")) {
+            for (RatingKey key : ratingKeys) {
+                ratingParameters(update, key, ratings.get(key));
+                update.addBatch();
+            }
+            int[] updated = update.executeBatch();
+            boolean inserts = false;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    ratingParameters(insert, ratingKeys.get(i), ratings.get(ratingKeys.get(i)));
+                    insert.addBatch();
+                    inserts = true;
+                }
+            }
+            if (inserts) {
+                insert.executeBatch();
+            }
+        }
+
+        List<SurnameKey> surnameKeys = new ArrayList<>(surnames.keySet());
+        try (PreparedStatement update = db.prepareStatement(
+                "UPDATE audit_surname_daily SET requests = requests + ? WHERE day = ? AND family_name = ?");
+             PreparedStatement insert = db.prepareStatement(
+                 "INSERT INTO audit_surname_daily (requests, day, family_name) VALUES (?, ?, ?)")) {
+            for (SurnameKey key : surnameKeys) {
+                surnameParameters(update, key, surnames.get(key)[0]);
+                update.addBatch();
+            }
+            int[] updated = update.executeBatch();
+            boolean inserts = false;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    surnameParameters(insert, surnameKeys.get(i), surnames.get(surnameKeys.get(i))[0]);
+                    insert.addBatch();
+                    inserts = true;
+                }
+            }
+            if (inserts) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static void ratingParameters(PreparedStatement statement, RatingKey key, long[] totals) throws SQLException {
+        statement.setLong(1, totals[0]);
+        statement.setLong(2, totals[1]);
+        statement.setDate(3, Date.valueOf(key.day));
+        statement.setInt(4, key.route);
+        statement.setInt(5, key.rating);
+    }
+
+    private static void surnameParameters(PreparedStatement statement, SurnameKey key, long requests) throws SQLException {
+        statement.setLong(1, requests);
+        statement.setDate(2, Date.valueOf(key.day));
+        statement.setString(3, key.surname);
+    }
+
+    /**
+     * Deletes raw events older than the retention once a day; the rollups are kept.
+     */
+    private void purge(Connection db) throws SQLException {
+        LocalDate today = LocalDate.now(clock);
+        if (today.equals(lastPurge)) {
+            return;
+        }
+        try (PreparedStatement delete = db.prepareStatement("DELETE FROM audit_events WHERE at < ?")) {
+            delete.setTimestamp(1, Timestamp.valueOf(today.minusDays(retentionDays).atStartOfDay()));
+            delete.executeUpdate();
+        }
+        lastPurge = today;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            Connection db = open();
+            db.setAutoCommit(false);
+            connection = db;
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Could not close the audit database", e);
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Opens a connection, creating the tables the first time.
+     */
+    private Connection open() throws SQLException {
+        Connection db = DriverManager.getConnection(url, user, password);
+        if (!schemaCreated) {
+            try {
+                createSchema(db);
+            } catch (SQLException e) {
+                db.close();
+                throw e;
+            }
+            schemaCreated = true;
+        }
+        return db;
+    }
+
+    private static void createSchema(Connection db) throws SQLException {
+        try (Statement ddl = db.createStatement()) {
+            ddl.execute("CREATE TABLE IF NOT EXISTS audit_events ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, at TIMESTAMP NOT NULL,"
+                + " route TINYINT NOT NULL, rating TINYINT NOT NULL, strokes SMALLINT NOT NULL, latency_micros INT NOT NULL)");
+            ddl.execute("CREATE INDEX IF NOT EXISTS audit_events_at ON audit_events (at)");
+            ddl.execute("CREATE TABLE IF NOT EXISTS audit_rating_daily ("
+                + "day DATE NOT NULL, route TINYINT NOT NULL, rating TINYINT NOT NULL,"
+                + " requests BIGINT NOT NULL, latency_micros BIGINT NOT NULL, PRIMARY KEY (day, route, rating))");
+            ddl.execute("CREATE TABLE IF NOT EXISTS audit_surname_daily ("
+                + "day DATE NOT NULL, family_name VARCHAR(" + MAX_SURNAME_LENGTH + ") NOT NULL,"
+                + " requests BIGINT NOT NULL, PRIMARY KEY (day, family_name))");
+        }
+    }
+
+    /**
+     * Requests and total latency per day, route and rating since the given day, from the rollup.
+     */
+    public List<RatingCount> ratingsSince(LocalDate from) throws SQLException {
+        List<RatingCount> rows = new ArrayList<>();
+        try (Connection db = open();
+             PreparedStatement query = db.prepareStatement(
+                 "SELECT day, route, rating, requests, latency_micros FROM audit_rating_daily"
+                     + " WHERE day >= ? ORDER BY day, route, rating")) {
+            query.setDate(1, Date.valueOf(from));
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    rows.add(new RatingCount(result.getDate(1).toLocalDate(), ROUTES[result.getInt(2)],
+                        Rating.values()[result.getInt(3)], result.getLong(4), result.getLong(5)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The most requested family names since the given day, from the rollup.
+     * Names requested fewer than {@code minRequests} times are left out.
+     */
+    public List<SurnameCount> topSurnamesSince(LocalDate from, int minRequests, int limit) throws SQLException {
+        List<SurnameCount> rows = new ArrayList<>();
+        try (Connection db = open();
+             PreparedStatement query = db.prepareStatement(
+                 "SELECT family_name, SUM(requests) AS total FROM audit_surname_daily WHERE day >= ?"
+                     + " GROUP BY family_name HAVING SUM(requests) >= ? ORDER BY total DESC, family_name LIMIT ?")) {
+            query.setDate(1, Date.valueOf(from));
+            query.setLong(2, minRequests);
+            query.setInt(3, limit);
+            try (ResultSet result = query.executeQuery()) {
+                while (result.next()) {
+                    rows.add(new SurnameCount(result.getString(1), result.getLong(2)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static final class Event {
+        final long at;
+        final int route;
+        final int rating;
+        final int strokes;
+        final String surname;
+        final int latencyMicros;
+
+        Event(long at, int route, int rating, int strokes, String surname, int latencyMicros) {
+            this.at = at;
+            this.route = route;
+            this.rating = rating;
+            this.strokes = strokes;
+            this.surname = surname;
+            this.latencyMicros = latencyMicros;
+        }
+    }
+
+    private static final class RatingKey {
+        final LocalDate day;
+        final int route;
+        final int rating;
+
+        RatingKey(LocalDate day, int route, int rating) {
+            this.day = day;
+            this.route = route;
+            this.rating = rating;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RatingKey)) {
+                return false;
+            }
+            RatingKey other = (RatingKey) o;
+            return day.equals(other.day) && route == other.route && rating == other.rating;
+        }
+
+        @Override
+        public int hashCode() {
+            return (day.hashCode() * 31 + route) * 31 + rating;
+        }
+    }
+
+    private static final class SurnameKey {
+        final LocalDate day;
+        final String surname;
+
+        SurnameKey(LocalDate day, String surname) {
+            this.day = day;
+            this.surname = surname;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SurnameKey && day.equals(((SurnameKey) o).day) && surname.equals(((SurnameKey) o).surname);
+        }
+
+        @Override
+        public int hashCode() {
+            return day.hashCode() * 31 + surname.hashCode();
+        }
+    }
+
+    /**
+     * Requests and their total latency for one day, route and rating.
+     */
+    public static final class RatingCount {
+        private final LocalDate day;
+        private final String route;
+        private final Rating rating;
+        private final long requests;
+        private final long latencyMicros;
+
+        RatingCount(LocalDate day, String route, Rating rating, long requests, long latencyMicros) {
+            this.day = day;
+            this.route = route;
+            this.rating = rating;
+            this.requests = requests;
+            this.latencyMicros = latencyMicros;
+        }
+
+        public LocalDate getDay() { return day; }
+
+        public String getRoute() { return route; }
+
+        public Rating getRating() { return rating; }
+
+        public long getRequests() { return requests; }
+
+        public long getLatencyMicros() { return latencyMicros; }
+    }
+
+    /**
+     * Requests for one family name.
+     */
+    public static final class SurnameCount {
+        private final String familyName;
+        private final long requests;
+
+        SurnameCount(String familyName, long requests) {
+            this.familyName = familyName;
+            this.requests = requests;
+        }
+
+        public String getFamilyName() { return familyName; }
+
+        public long getRequests() { return requests; }
+    }
+}
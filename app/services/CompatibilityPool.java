@@ -0,0 +1,36 @@
+package services;
+
+import com.typesafe.config.Config;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fork-join pool for the compatibility matrix, sized by
+ * `fortune.compatibility.parallelism` (0 = number of cores).
+ *
+ * Kept apart from the fortune dispatcher so that one large matrix
+ * splits across all cores without queueing behind page requests.
+ */
+@Singleton
+public class CompatibilityPool {
+
+    private final ForkJoinPool pool;
+
+    @Inject
+    public CompatibilityPool(Config config, ApplicationLifecycle lifecycle) {
+        int parallelism = config.getInt("fortune.compatibility.parallelism");
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        lifecycle.addStopHook(() -> {
+            pool.shutdown();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public ForkJoinPool get() {
+        return pool;
+    }
+}
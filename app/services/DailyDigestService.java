@@ -0,0 +1,155 @@
+package services;
+
+import com.typesafe.config.Config;
+import fortune.DailyDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Today's rating for every supported birth date, precomputed by a
+ * background job, configured by `fortune.digest`.
+ *
+ * Shortly before local midnight of the injected {@link Clock} the job
+ * computes the next day's {@link DailyDigest}, and at midnight it swaps
+ * it in with a single volatile write, so a lookup is one timestamp
+ * comparison and one array index and never runs the engine. If the job
+ * is late, the first lookup after midnight swaps or computes the digest
+ * itself, like {@link FortuneCalendar}.
+ */
+@Singleton
+public class DailyDigestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyDigestService.class);
+
+    private final Clock clock;
+    private final long prepareAheadMillis;
+    private volatile Snapshot current;
+    private volatile Snapshot next;
+
+    @Inject
+    public DailyDigestService(Config config, Clock clock, ApplicationLifecycle lifecycle) {
+        this(clock, config.getDuration("fortune.digest.prepareAhead", TimeUnit.MILLISECONDS));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daily-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext(scheduler);
+        lifecycle.addStopHook(() -> {
+            scheduler.shutdownNow();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    DailyDigestService(Clock clock, long prepareAheadMillis) {
+        this.clock = clock;
+        this.prepareAheadMillis = prepareAheadMillis;
+        this.current = compute(LocalDate.now(clock));
+    }
+
+    /**
+     * Returns today's digest.
+     */
+    public Snapshot today() {
+        Snapshot snapshot = current;
+        long now = clock.millis();
+        if (now >= snapshot.validUntil || now < snapshot.validFrom) {
+            snapshot = refresh(now);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Seconds until the snapshot expires, rounded up, for Cache-Control.
+     */
+    public long secondsRemaining(Snapshot snapshot) {
+        long millis = snapshot.validUntil - clock.millis();
+        return millis <= 0 ? 0 : (millis + 999) / 1000;
+    }
+
+    /**
+     * Computes the digest of the day after the current one, to be swapped in at midnight.
+     */
+    void prepareNext() {
+        Snapshot upcoming = next;
+        LocalDate day = current.digest.getDay().plusDays(1);
+        if (upcoming == null || !upcoming.digest.getDay().equals(day)) {
+            long start = System.nanoTime();
+            next = compute(day);
+            logger.info("Prepared the daily digest for {} in {} ms", day,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Makes the prepared digest current if its day has begun.
+     */
+    void swap() {
+        refresh(clock.millis());
+    }
+
+    private Snapshot refresh(long now) {
+        Snapshot upcoming = next;
+        if (upcoming != null && now >= upcoming.validFrom && now < upcoming.validUntil) {
+            current = upcoming;
+            next = null;
+            return upcoming;
+        }
+        Snapshot snapshot = current;
+        if (now >= snapshot.validFrom && now < snapshot.validUntil) {
+            return snapshot;
+        }
+        // Missed midnight (or the clock moved); concurrent rebuilds produce identical digests
+        snapshot = compute(LocalDate.now(clock));
+        current = snapshot;
+        return snapshot;
+    }
+
+    private void scheduleNext(ScheduledExecutorService scheduler) {
+        long midnight = current.validUntil;
+        long now = clock.millis();
+        scheduler.schedule(this::prepareNext, Math.max(0, midnight - prepareAheadMillis - now), TimeUnit.MILLISECONDS);
+        scheduler.schedule(() -> {
+            try {
+                swap();
+            } finally {
+                scheduleNext(scheduler);
+            }
+        }, Math.max(1, midnight - now), TimeUnit.MILLISECONDS);
+    }
+
+    private Snapshot compute(LocalDate day) {
+        long validFrom = day.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        long validUntil = day.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Snapshot(DailyDigest.compute(day), validFrom, validUntil);
+    }
+
+    /**
+     * A day's digest with the epoch milliseconds of its local midnights.
+     */
+    public static final class Snapshot {
+        private final DailyDigest digest;
+        private final long validFrom;
+        private final long validUntil;
+
+        Snapshot(DailyDigest digest, long validFrom, long validUntil) {
+            this.digest = digest;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        public DailyDigest getDigest() {
+            return digest;
+        }
+    }
+}
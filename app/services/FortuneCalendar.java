@@ -0,0 +1,86 @@
+package services;
+
+import fortune.FortuneWeek;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Holds the precomputed fortune window for the current day.
+ *
+ * The window is rebuilt the first time it is requested after local
+ * midnight of the injected {@link Clock}, so between midnights a
+ * lookup is a single timestamp comparison.
+ */
+@Singleton
+public class FortuneCalendar {
+
+    private final Clock clock;
+    private volatile Window window;
+
+    @Inject
+    public FortuneCalendar(Clock clock) {
+        this.clock = clock;
+        this.window = createWindow();
+    }
+
+    /**
+     * Returns the fortune window starting today.
+     */
+    public FortuneWeek currentWeek() {
+        return currentWindow().getWeek();
+    }
+
+    /**
+     * Returns the fortune window starting today together with its expiry.
+     */
+    public Window currentWindow() {
+        Window current = window;
+        if (clock.millis() >= current.validUntil) {
+            // Concurrent rebuilds around midnight produce identical windows, so no locking is needed
+            current = createWindow();
+            window = current;
+        }
+        return current;
+    }
+
+    /**
+     * Whole seconds until the given window expires (rounded up), for HTTP max-age.
+     */
+    public long secondsRemaining(Window window) {
+        long millis = window.validUntil - clock.millis();
+        return millis <= 0 ? 0 : (millis + 999) / 1000;
+    }
+
+    private Window createWindow() {
+        LocalDate today = LocalDate.now(clock);
+        long validUntil = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Window(FortuneWeek.startingAt(today), validUntil);
+    }
+
+    /**
+     * A precomputed fortune window, valid until the next local midnight.
+     */
+    public static final class Window {
+        private final FortuneWeek week;
+        private final long validUntil;
+
+        Window(FortuneWeek week, long validUntil) {
+            this.week = week;
+            this.validUntil = validUntil;
+        }
+
+        public FortuneWeek getWeek() {
+            return week;
+        }
+
+        /**
+         * Epoch milliseconds of the next local midnight.
+         */
+        public long getValidUntil() {
+            return validUntil;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package services;
+
+import org.apache.pekko.actor.ActorSystem;
+import play.libs.concurrent.CustomExecutionContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Execution context for fortune computation and rendering, backed by the
+ * `fortune.dispatcher` Pekko dispatcher configured in application.conf.
+ *
+ * Keeping CPU-bound work off Play's default dispatcher means slow
+ * requests cannot starve the threads that handle I/O.
+ */
+@Singleton
+public class FortuneExecutionContext extends CustomExecutionContext {
+
+    @Inject
+    public FortuneExecutionContext(ActorSystem actorSystem) {
+        super(actorSystem, "fortune.dispatcher");
+    }
+}
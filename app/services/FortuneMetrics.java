@@ -0,0 +1,190 @@
+package services;
+
+import javax.inject.Singleton;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Request and action metrics, exposed in Prometheus text format.
+ *
+ * Routes and action phases are registered on first use; after that,
+ * recording is a map lookup plus {@link LongAdder} and
+ * {@link LatencyTimer} updates, none of which block.
+ */
+@Singleton
+public class FortuneMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final ConcurrentHashMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ActionTimers> actions = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Sample> samples = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the metrics of a route, e.g. {@code ("POST", "/fortune")}.
+     */
+    public RouteMetrics route(String method, String path) {
+        return routes.computeIfAbsent(method + ' ' + path, k -> new RouteMetrics(method, path));
+    }
+
+    /**
+     * Returns the phase timers of a controller action, e.g. {@code "fortune"}.
+     */
+    public ActionTimers action(String action) {
+        return actions.computeIfAbsent(action, k -> new ActionTimers());
+    }
+
+    /**
+     * Registers a value that is read on every scrape, e.g. a cache size.
+     */
+    public void gauge(String name, String help, LongSupplier value) {
+        samples.add(new Sample(name, help, "gauge", value));
+    }
+
+    /**
+     * Registers a monotonically increasing value that is read on every scrape.
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        samples.add(new Sample(name, help, "counter", value));
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String toPrometheusText() {
+        Map<String, RouteMetrics> sortedRoutes = new TreeMap<>(routes);
+        StringBuilder sb = new StringBuilder(4096);
+
+        sb.append("# HELP fortune_http_requests_total Requests handled, by route.\n");
+        sb.append("# TYPE fortune_http_requests_total counter\n");
+        for (RouteMetrics route : sortedRoutes.values()) {
+            sb.append("fortune_http_requests_total{").append(route.labels()).append("} ")
+                .append(route.requests.sum()).append('\n');
+        }
+
+        sb.append("# HELP fortune_http_errors_total Requests that failed or returned a 5xx status, by route.\n");
+        sb.append("# TYPE fortune_http_errors_total counter\n");
+        for (RouteMetrics route : sortedRoutes.values()) {
+            sb.append("fortune_http_errors_total{").append(route.labels()).append("} ")
+                .append(route.errors.sum()).append('\n');
+        }
+
+        sb.append("# HELP fortune_http_request_duration_seconds Time until the response header is ready, by route.\n");
+        sb.append("# TYPE fortune_http_request_duration_seconds summary\n");
+        for (RouteMetrics route : sortedRoutes.values()) {
+            appendSummary(sb, "fortune_http_request_duration_seconds", route.labels(), route.latency.snapshot());
+        }
+
+        sb.append("# HELP fortune_action_phase_duration_seconds Time spent in form binding, computation and rendering, by action.\n");
+        sb.append("# TYPE fortune_action_phase_duration_seconds summary\n");
+        for (Map.Entry<String, ActionTimers> entry : new TreeMap<>(actions).entrySet()) {
+            String action = "action=\"" + escape(entry.getKey()) + "\",phase=";
+            ActionTimers timers = entry.getValue();
+            appendSummary(sb, "fortune_action_phase_duration_seconds", action + "\"binding\"", timers.binding.snapshot());
+            appendSummary(sb, "fortune_action_phase_duration_seconds", action + "\"compute\"", timers.compute.snapshot());
+            appendSummary(sb, "fortune_action_phase_duration_seconds", action + "\"render\"", timers.render.snapshot());
+        }
+
+        for (Sample sample : samples) {
+            sb.append("# HELP ").append(sample.name).append(' ').append(sample.help).append('\n');
+            sb.append("# TYPE ").append(sample.name).append(' ').append(sample.type).append('\n');
+            sb.append(sample.name).append(' ').append(sample.value.getAsLong()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void appendSummary(StringBuilder sb, String name, String labels, LatencyTimer.Snapshot snapshot) {
+        for (double quantile : QUANTILES) {
+            sb.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(snapshot.getCount() == 0 ? 0 : snapshot.getValueAtPercentile(quantile * 100)))
+                .append('\n');
+        }
+        sb.append(name).append("_sum{").append(labels).append("} ").append(seconds(snapshot.getSumNanos())).append('\n');
+        sb.append(name).append("_count{").append(labels).append("} ").append(snapshot.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Counters and latency of one route.
+     */
+    public static final class RouteMetrics {
+        private final String labels;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyTimer latency = new LatencyTimer();
+
+        RouteMetrics(String method, String path) {
+            this.labels = "method=\"" + escape(method) + "\",route=\"" + escape(path) + "\"";
+        }
+
+        String labels() {
+            return labels;
+        }
+
+        /**
+         * Records a completed request.
+         */
+        public void record(long startNanos, boolean error) {
+            requests.increment();
+            if (error) {
+                errors.increment();
+            }
+            latency.recordSince(startNanos);
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+
+    /**
+     * Timers for the form binding, computation and rendering phases of an action.
+     */
+    public static final class ActionTimers {
+        private final LatencyTimer binding = new LatencyTimer();
+        private final LatencyTimer compute = new LatencyTimer();
+        private final LatencyTimer render = new LatencyTimer();
+
+        public LatencyTimer getBinding() {
+            return binding;
+        }
+
+        public LatencyTimer getCompute() {
+            return compute;
+        }
+
+        public LatencyTimer getRender() {
+            return render;
+        }
+    }
+
+    private static final class Sample {
+        final String name;
+        final String help;
+        final String type;
+        final LongSupplier value;
+
+        Sample(String name, String help, String type, LongSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
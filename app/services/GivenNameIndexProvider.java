@@ -0,0 +1,61 @@
+package services;
+
+import com.typesafe.config.Config;
+import fortune.GivenNameIndex;
+import fortune.StrokeDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Provides the given name index for the reverse name search, built at
+ * startup from the dictionary configured by `fortune.nameSearch.dictionary`.
+ *
+ * Falls back to an empty index when the dictionary is missing or unreadable.
+ */
+public class GivenNameIndexProvider implements Provider<GivenNameIndex> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GivenNameIndexProvider.class);
+
+    private final Environment environment;
+    private final Config config;
+    private final StrokeDictionary strokeDictionary;
+
+    @Inject
+    public GivenNameIndexProvider(Environment environment, Config config, StrokeDictionary strokeDictionary) {
+        this.environment = environment;
+        this.config = config;
+        this.strokeDictionary = strokeDictionary;
+    }
+
+    @Override
+    public GivenNameIndex get() {
+        String path = config.getString("fortune.nameSearch.dictionary");
+        Optional<File> file = environment.getExistingFile(path);
+        if (!file.isPresent()) {
+            logger.warn("Given name dictionary {} not found, the name search returns no candidates", path);
+            return empty();
+        }
+        try {
+            long start = System.nanoTime();
+            GivenNameIndex index = GivenNameIndex.read(file.get().toPath(), strokeDictionary);
+            logger.info("Indexed {} given names in {} stroke signatures from {} in {} ms",
+                index.size(), index.groupCount(), path, (System.nanoTime() - start) / 1_000_000);
+            return index;
+        } catch (IOException e) {
+            logger.error("Could not read given name dictionary " + path + ", the name search returns no candidates", e);
+            return empty();
+        }
+    }
+
+    private GivenNameIndex empty() {
+        return GivenNameIndex.of(strokeDictionary, Collections.emptyList(), new int[0]);
+    }
+}
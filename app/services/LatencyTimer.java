@@ -0,0 +1,83 @@
+package services;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with a wait-free recording path.
+ *
+ * Values are recorded into an HDR {@link Recorder}; readers swap out
+ * the interval histogram and fold it into a cumulative one, so only
+ * the (rare) read side takes a lock.
+ */
+public final class LatencyTimer {
+
+    /** Largest recorded latency; longer requests are clamped to it. */
+    static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** 2 significant digits keeps each histogram at a few tens of KB. */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(MAX_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder sumNanos = new LongAdder();
+
+    private final Histogram cumulative = new Histogram(MAX_NANOS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    /**
+     * Records one latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_NANOS));
+        recorder.recordValue(value);
+        sumNanos.add(value);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos} (a {@link System#nanoTime()} value).
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns a copy of everything recorded so far.
+     */
+    public synchronized Snapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        return new Snapshot(cumulative.copy(), sumNanos.sum());
+    }
+
+    /**
+     * Point-in-time view of a timer.
+     */
+    public static final class Snapshot {
+        private final Histogram histogram;
+        private final long sumNanos;
+
+        Snapshot(Histogram histogram, long sumNanos) {
+            this.histogram = histogram;
+            this.sumNanos = sumNanos;
+        }
+
+        public long getCount() {
+            return histogram.getTotalCount();
+        }
+
+        public long getSumNanos() {
+            return sumNanos;
+        }
+
+        public long getValueAtPercentile(double percentile) {
+            return histogram.getValueAtPercentile(percentile);
+        }
+
+        public long getMaxNanos() {
+            return histogram.getMaxValue();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package services;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive concurrency limit, configured by `fortune.loadShedding`.
+ *
+ * Requests over the limit are rejected at once rather than queued. The
+ * limit follows the observed latency: it shrinks when the latency rises
+ * above `tolerance` times the long-term average and grows by about the
+ * square root of the limit while latency stays there. Samples are folded
+ * in by whichever thread wins a flag; samples that arrive meanwhile are
+ * dropped rather than waiting.
+ */
+@Singleton
+public class LoadShedder {
+
+    /** Weight of one sample in the long-term latency average. */
+    private static final double LONG_TERM_WEIGHT = 0.01;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double longTermNanos;
+
+    @Inject
+    public LoadShedder(Config config, FortuneMetrics metrics) {
+        this(config.getConfig("fortune.loadShedding"));
+        metrics.counter("fortune_load_shed_total", "Requests rejected by the adaptive concurrency limit.", rejected::sum);
+        metrics.gauge("fortune_concurrency_limit", "Current adaptive concurrency limit.", this::getLimit);
+        metrics.gauge("fortune_concurrency_in_flight", "Requests currently admitted by the concurrency limit.", inFlight::get);
+    }
+
+    LoadShedder(Config config) {
+        this.enabled = config.getBoolean("enabled");
+        this.minLimit = config.getInt("minLimit");
+        this.maxLimit = config.getInt("maxLimit");
+        this.tolerance = config.getDouble("tolerance");
+        this.smoothing = config.getDouble("smoothing");
+        this.limit = Math.max(minLimit, Math.min(maxLimit, config.getInt("initialLimit")));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. Every admitted
+     * request must be followed by one {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request that started at the given {@link System#nanoTime()}.
+     */
+    public void release(long startNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        sample(System.nanoTime() - startNanos, concurrency);
+    }
+
+    void sample(long latencyNanos, int concurrency) {
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            double latency = Math.max(1, latencyNanos);
+            if (longTermNanos == 0) {
+                longTermNanos = latency;
+            } else {
+                longTermNanos += (latency - longTermNanos) * LONG_TERM_WEIGHT;
+                if (longTermNanos > 2 * latency) {
+                    // Recover quickly after an overload, so the old latencies do not pin the limit down
+                    longTermNanos = (longTermNanos + latency) / 2;
+                }
+            }
+            double current = limit;
+            if (concurrency < current / 2) {
+                // Too few requests in flight to say anything about the limit
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermNanos / latency));
+            double target = current * gradient + Math.sqrt(current);
+            double next = current * (1 - smoothing) + target * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    public long getLimit() {
+        return (long) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,224 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.typesafe.config.Config;
+import fortune.NameFortuneEngine;
+import models.NameFortune;
+import models.Rating;
+import models.StrokeFortune;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent cache of name fortune results.
+ *
+ * Names are NFKC-normalized before lookup and before computing, so
+ * full-width/half-width and compatibility variants share one entry.
+ * Configured by `fortune.nameCache` in application.conf.
+ *
+ * A miss in the in-heap tier is looked up in the shared {@link RemoteCache}
+ * tier, when one is configured, before computing, and a computed result
+ * is stored in both. Concurrent requests for the same name wait for the
+ * first one's result instead of computing it again. Shared entries are
+ * keyed by `fortune.http.resultVersion`, so changing it stops instances
+ * from reading results computed before the change.
+ */
+@Singleton
+public class NameFortuneCache {
+
+    /**
+     * Computes a name fortune from normalized inputs.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        NameFortune load(String familyName, String givenName);
+    }
+
+    private final AsyncCache<String, NameFortune> cache;
+    private final RemoteCache remote;
+    private final String remoteKeyPrefix;
+    private final long remoteTtlMillis;
+    /** Loads in progress when there is no in-heap tier to hold them. */
+    private final ConcurrentMap<String, CompletableFuture<NameFortune>> loading = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+
+    @Inject
+    public NameFortuneCache(Config config, RemoteCache remote, FortuneMetrics metrics) {
+        this(config, remote);
+        metrics.counter("fortune_name_cache_coalesced_total",
+            "Name fortune requests that waited for a concurrent identical computation.", coalesced::sum);
+        metrics.counter("fortune_name_cache_remote_hits_total", "Name fortune hits in the shared cache tier.", remoteHits::sum);
+        metrics.counter("fortune_name_cache_remote_misses_total", "Name fortune misses in the shared cache tier.", remoteMisses::sum);
+        metrics.counter("fortune_name_cache_remote_errors_total", "Failed shared cache tier calls.", remoteErrors::sum);
+    }
+
+    public NameFortuneCache(Config config) {
+        this(config, RemoteCache.NONE);
+    }
+
+    NameFortuneCache(Config config, RemoteCache remote) {
+        Config cacheConfig = config.getConfig("fortune.nameCache");
+        long expireAfterWrite = cacheConfig.getDuration("expireAfterWrite", TimeUnit.MILLISECONDS);
+        if (cacheConfig.getBoolean("enabled")) {
+            this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getLong("maximumSize"))
+                .expireAfterWrite(expireAfterWrite, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .buildAsync();
+        } else {
+            this.cache = null;
+        }
+        this.remote = remote == RemoteCache.NONE ? null : remote;
+        this.remoteKeyPrefix = this.remote != null
+            ? config.getString("fortune.remoteCache.keyPrefix") + "name:" + config.getString("fortune.http.resultVersion") + ':'
+            : null;
+        this.remoteTtlMillis = expireAfterWrite;
+    }
+
+    /**
+     * Returns the cached result for the given name, computing it with the loader on a miss.
+     */
+    public NameFortune get(String familyName, String givenName, Loader loader) {
+        String family = NameFortuneEngine.normalize(familyName);
+        String given = NameFortuneEngine.normalize(givenName);
+        if (cache == null && remote == null) {
+            return loader.load(family, given);
+        }
+        String key = family + '\u0000' + given;
+        CompletableFuture<NameFortune> pending = cache != null ? cache.getIfPresent(key) : loading.get(key);
+        if (pending == null) {
+            CompletableFuture<NameFortune> created = new CompletableFuture<>();
+            ConcurrentMap<String, CompletableFuture<NameFortune>> inFlight = cache != null ? cache.asMap() : loading;
+            pending = inFlight.putIfAbsent(key, created);
+            if (pending == null) {
+                try {
+                    NameFortune result = load(key, family, given, loader);
+                    created.complete(result);
+                    return result;
+                } catch (Throwable e) {
+                    // Errors too, or waiting requests for this name would block forever
+                    created.completeExceptionally(e);
+                    inFlight.remove(key, created);
+                    throw e;
+                } finally {
+                    if (cache == null) {
+                        loading.remove(key, created);
+                    }
+                }
+            }
+        }
+        if (!pending.isDone()) {
+            coalesced.increment();
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private NameFortune load(String key, String family, String given, Loader loader) {
+        if (remote == null) {
+            return loader.load(family, given);
+        }
+        String remoteKey = remoteKeyPrefix + key;
+        try {
+            NameFortune shared = decode(remote.get(remoteKey));
+            if (shared != null) {
+                remoteHits.increment();
+                return shared;
+            }
+            remoteMisses.increment();
+        } catch (IOException e) {
+            remoteErrors.increment();
+        }
+        NameFortune result = loader.load(family, given);
+        try {
+            remote.put(remoteKey, encode(result), remoteTtlMillis);
+        } catch (IOException e) {
+            remoteErrors.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Stroke counts and rating as comma separated integers.
+     */
+    static String encode(NameFortune fortune) {
+        return fortune.getFamilyNameStrokes() + "," + fortune.getGivenNameStrokes()
+            + "," + fortune.getTenKaku() + "," + fortune.getJinKaku() + "," + fortune.getChiKaku()
+            + "," + fortune.getGaiKaku() + "," + fortune.getSoKaku()
+            + "," + fortune.getStrokeFortune().getRating().ordinal();
+    }
+
+    /**
+     * Decodes {@link #encode}, or returns null for a missing or unreadable value.
+     */
+    static NameFortune decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] fields = value.split(",", -1);
+        if (fields.length != 8) {
+            return null;
+        }
+        try {
+            int[] numbers = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                numbers[i] = Integer.parseInt(fields[i]);
+            }
+            Rating[] ratings = Rating.values();
+            if (numbers[7] < 0 || numbers[7] >= ratings.length) {
+                return null;
+            }
+            return new NameFortune(numbers[0], numbers[1], numbers[2], numbers[3], numbers[4], numbers[5], numbers[6],
+                StrokeFortune.of(ratings[numbers[7]]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether the in-heap tier is enabled.
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Whether a shared cache tier is configured.
+     */
+    public boolean isRemoteEnabled() {
+        return remote != null;
+    }
+
+    /**
+     * Hit, miss and eviction counters of the in-heap tier since startup.
+     */
+    public CacheStats stats() {
+        return cache != null ? cache.synchronous().stats() : CacheStats.empty();
+    }
+
+    /**
+     * Approximate number of cached entries.
+     */
+    public long size() {
+        return cache != null ? cache.synchronous().estimatedSize() : 0;
+    }
+}
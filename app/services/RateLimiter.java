@@ -0,0 +1,96 @@
+package services;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets, configured by `fortune.rateLimit`.
+ *
+ * Clients are hashed onto a fixed array of buckets, so memory stays
+ * bounded however many addresses send requests; clients that share a
+ * bucket share its budget. Each bucket is one long (refill time in
+ * milliseconds and tokens in thousandths) updated with compare-and-set,
+ * so taking a token never blocks.
+ */
+@Singleton
+public class RateLimiter {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final boolean enabled;
+    private final long ratePerSecond;
+    private final long capacity;
+    private final AtomicLongArray buckets;
+    private final int mask;
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final LongAdder rejected = new LongAdder();
+
+    @Inject
+    public RateLimiter(Config config, FortuneMetrics metrics) {
+        this(config.getConfig("fortune.rateLimit"), System::nanoTime);
+        metrics.counter("fortune_rate_limited_total", "Requests rejected by the per-client rate limit.", rejected::sum);
+    }
+
+    RateLimiter(Config config, LongSupplier nanoTime) {
+        this.enabled = config.getBoolean("enabled");
+        this.ratePerSecond = config.getInt("ratePerSecond");
+        this.capacity = config.getInt("burst") * MILLI;
+        if (ratePerSecond < 1 || capacity < MILLI || capacity > TOKEN_MASK) {
+            throw new IllegalArgumentException("fortune.rateLimit needs ratePerSecond >= 1 and burst between 1 and "
+                + TOKEN_MASK / MILLI);
+        }
+        int stripes = Integer.highestOneBit(Math.max(1, config.getInt("stripes") - 1)) << 1;
+        this.buckets = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+        this.nanoTime = nanoTime;
+        // One millisecond back, so that a bucket state of 0 always means unused
+        this.origin = nanoTime.getAsLong() - TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for the client.
+     *
+     * @return 0 if the request may proceed, otherwise the milliseconds until
+     *         the client's bucket holds a token again
+     */
+    public long tryAcquire(String client) {
+        int index = spread(client.hashCode()) & mask;
+        long now = TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - origin);
+        while (true) {
+            long state = buckets.get(index);
+            long tokens;
+            if (state == 0) {
+                tokens = capacity;
+            } else {
+                // A rate of r tokens per second adds r thousandths of a token per millisecond
+                long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+                tokens = Math.min(capacity, (state & TOKEN_MASK) + elapsed * ratePerSecond);
+            }
+            if (tokens < MILLI) {
+                rejected.increment();
+                return (MILLI - tokens + ratePerSecond - 1) / ratePerSecond;
+            }
+            if (buckets.compareAndSet(index, state, now << TOKEN_BITS | (tokens - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,250 @@
+package services;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RemoteCache} on a Redis server (or anything speaking RESP, e.g.
+ * Valkey or KeyDB), configured by `fortune.remoteCache.redis`.
+ *
+ * Uses plain `GET` and `SET ... PX` over pooled blocking sockets with
+ * short timeouts. After an I/O error the server is not contacted again
+ * for `retryAfter`, so an outage costs one timeout, not one per request.
+ */
+@Singleton
+public class RedisRemoteCache implements RemoteCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRemoteCache.class);
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final int connectTimeoutMillis;
+    private final int timeoutMillis;
+    private final long retryAfterNanos;
+    private final BlockingQueue<Connection> idle;
+    private volatile long unavailableUntil;
+    private volatile boolean closed;
+
+    @Inject
+    public RedisRemoteCache(Config config, ApplicationLifecycle lifecycle) {
+        this(config);
+        lifecycle.addStopHook(() -> {
+            close();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    RedisRemoteCache(Config config) {
+        Config redis = config.getConfig("fortune.remoteCache.redis");
+        this.host = redis.getString("host");
+        this.port = redis.getInt("port");
+        this.password = redis.getString("password");
+        this.database = redis.getInt("database");
+        this.connectTimeoutMillis = (int) redis.getDuration("connectTimeout", TimeUnit.MILLISECONDS);
+        this.timeoutMillis = (int) redis.getDuration("timeout", TimeUnit.MILLISECONDS);
+        this.retryAfterNanos = redis.getDuration("retryAfter", TimeUnit.NANOSECONDS);
+        this.idle = new ArrayBlockingQueue<>(redis.getInt("poolSize"));
+        this.unavailableUntil = System.nanoTime();
+    }
+
+    @Override
+    public String get(String key) throws IOException {
+        byte[] value = (byte[]) execute("GET", key);
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public void put(String key, String value, long ttlMillis) throws IOException {
+        execute("SET", key, value, "PX", Long.toString(Math.max(1, ttlMillis)));
+    }
+
+    /**
+     * Closes the pooled connections; later calls fail.
+     */
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private Object execute(String... command) throws IOException {
+        if (closed || System.nanoTime() - unavailableUntil < 0) {
+            throw new IOException("Redis at " + host + ':' + port + " is unavailable");
+        }
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = connect();
+            }
+            Object reply = connection.call(command);
+            release(connection);
+            return reply;
+        } catch (RedisException e) {
+            release(connection);
+            throw e;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            unavailableUntil = System.nanoTime() + retryAfterNanos;
+            logger.warn("Redis at {}:{} failed, bypassing it for {} ms: {}", host, port,
+                TimeUnit.NANOSECONDS.toMillis(retryAfterNanos), e.toString());
+            throw e;
+        }
+    }
+
+    private void release(Connection connection) {
+        if (closed || !idle.offer(connection)) {
+            connection.close();
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+            Connection connection = new Connection(socket);
+            if (!password.isEmpty()) {
+                connection.call("AUTH", password);
+            }
+            if (database != 0) {
+                connection.call("SELECT", Integer.toString(database));
+            }
+            return connection;
+        } catch (RedisException e) {
+            socket.close();
+            throw new IOException("Redis rejected the connection: " + e.getMessage());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * An error reply from the server; the connection stays usable.
+     */
+    static final class RedisException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RedisException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * One RESP connection, used by a single thread at a time.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        Object call(String... command) throws IOException {
+            out.write('*');
+            writeLine(Integer.toString(command.length));
+            for (String argument : command) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                out.write('$');
+                writeLine(Integer.toString(bytes.length));
+                out.write(bytes);
+                writeLine("");
+            }
+            out.flush();
+            return readReply();
+        }
+
+        /**
+         * Reads a reply: a String for a status, a Long for an integer,
+         * a byte[] or null for a bulk string.
+         */
+        private Object readReply() throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                throw new EOFException("Redis closed the connection");
+            }
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    throw new RedisException(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] value = in.readNBytes(length);
+                    if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("Truncated Redis reply");
+                    }
+                    return value;
+                }
+                default:
+                    throw new IOException("Unexpected Redis reply type " + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    throw new EOFException("Redis closed the connection");
+                }
+                line.append((char) c);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Malformed Redis reply");
+            }
+            return line.toString();
+        }
+
+        private void writeLine(String line) throws IOException {
+            for (int i = 0; i < line.length(); i++) {
+                out.write(line.charAt(i));
+            }
+            out.write('\r');
+            out.write('\n');
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing to recover
+            }
+        }
+    }
+}
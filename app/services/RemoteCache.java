@@ -0,0 +1,37 @@
+package services;
+
+import java.io.IOException;
+
+/**
+ * Cache tier shared by all instances, behind the in-heap result caches,
+ * selected by `fortune.remoteCache.type` (see {@link RemoteCacheProvider}).
+ *
+ * Implementations must be thread-safe. Callers treat an {@link IOException}
+ * as a miss, so an unavailable tier only costs the recomputation.
+ */
+public interface RemoteCache {
+
+    /**
+     * The tier used when none is configured: always misses, stores nothing.
+     */
+    RemoteCache NONE = new RemoteCache() {
+        @Override
+        public String get(String key) {
+            return null;
+        }
+
+        @Override
+        public void put(String key, String value, long ttlMillis) {
+        }
+    };
+
+    /**
+     * Returns the value stored under the key, or null on a miss.
+     */
+    String get(String key) throws IOException;
+
+    /**
+     * Stores the value under the key, expiring after {@code ttlMillis}.
+     */
+    void put(String key, String value, long ttlMillis) throws IOException;
+}
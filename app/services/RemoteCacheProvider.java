@@ -0,0 +1,54 @@
+package services;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+import play.inject.Injector;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+/**
+ * Provides the shared cache tier named by `fortune.remoteCache.type`:
+ * `none` (the default), `redis`, or the class name of another
+ * {@link RemoteCache} implementation, which is created by the injector.
+ */
+public class RemoteCacheProvider implements Provider<RemoteCache> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteCacheProvider.class);
+
+    private final Environment environment;
+    private final Injector injector;
+    private final Config config;
+
+    @Inject
+    public RemoteCacheProvider(Environment environment, Injector injector, Config config) {
+        this.environment = environment;
+        this.injector = injector;
+        this.config = config;
+    }
+
+    @Override
+    public RemoteCache get() {
+        String type = config.getString("fortune.remoteCache.type");
+        switch (type) {
+            case "none":
+                return RemoteCache.NONE;
+            case "redis":
+                logger.info("Sharing results through Redis at {}:{}",
+                    config.getString("fortune.remoteCache.redis.host"), config.getInt("fortune.remoteCache.redis.port"));
+                return injector.instanceOf(RedisRemoteCache.class);
+            default:
+                try {
+                    Class<? extends RemoteCache> implementation =
+                        environment.classLoader().loadClass(type).asSubclass(RemoteCache.class);
+                    logger.info("Sharing results through {}", type);
+                    return injector.instanceOf(implementation);
+                } catch (ClassNotFoundException | ClassCastException e) {
+                    throw new IllegalStateException("fortune.remoteCache.type must be none, redis or a "
+                        + RemoteCache.class.getName() + " implementation, not " + type, e);
+                }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package services;
+
+import com.typesafe.config.Config;
+import fortune.StrokeDatabase;
+import fortune.StrokeDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Provides the application stroke dictionary, memory-mapping the compiled
+ * stroke database configured by `fortune.strokes.database` at startup.
+ *
+ * Falls back to the built-in table when the database is missing or invalid.
+ */
+public class StrokeDictionaryProvider implements Provider<StrokeDictionary> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StrokeDictionaryProvider.class);
+
+    private final Environment environment;
+    private final Config config;
+
+    @Inject
+    public StrokeDictionaryProvider(Environment environment, Config config) {
+        this.environment = environment;
+        this.config = config;
+    }
+
+    @Override
+    public StrokeDictionary get() {
+        String path = config.getString("fortune.strokes.database");
+        Optional<File> file = environment.getExistingFile(path);
+        if (!file.isPresent()) {
+            logger.warn("Stroke database {} not found, using the built-in stroke table", path);
+            return StrokeDictionary.builtin();
+        }
+        try {
+            StrokeDatabase database = StrokeDatabase.open(file.get().toPath());
+            logger.info("Mapped stroke database {} ({} code points)", path, database.size());
+            return StrokeDictionary.withDatabase(database);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Could not load stroke database " + path + ", using the built-in stroke table", e);
+            return StrokeDictionary.builtin();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package services;
+
+import com.typesafe.config.Config;
+import org.apache.pekko.dispatch.DispatcherPrerequisites;
+import org.apache.pekko.dispatch.ExecutorServiceConfigurator;
+import org.apache.pekko.dispatch.ExecutorServiceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pekko executor that runs each task on a new virtual thread (JDK 21+).
+ *
+ * Select it with `executor = "services.VirtualThreadExecutorConfigurator"`
+ * in a dispatcher configuration. On older JDKs it logs a warning and
+ * falls back to a fixed pool with one thread per core.
+ */
+public class VirtualThreadExecutorConfigurator extends ExecutorServiceConfigurator {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutorConfigurator.class);
+
+    public VirtualThreadExecutorConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        return () -> {
+            try {
+                // Looked up reflectively so the application still compiles and runs on JDK 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not available, dispatcher {} uses a fixed thread pool", id);
+                return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+            }
+        };
+    }
+}
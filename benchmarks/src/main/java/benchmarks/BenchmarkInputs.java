@@ -0,0 +1,51 @@
+package benchmarks;
+
+/**
+ * Stable, realistic benchmark inputs shared by the benchmarks.
+ *
+ * Each {@code @Param} value names a category of family/given name
+ * pairs; the pairs are cycled through so a measurement is not tuned
+ * to a single string.
+ */
+final class BenchmarkInputs {
+
+    /** Common surnames and given names written in kanji. */
+    static final String[][] COMMON = {
+        {"佐藤", "太郎"}, {"鈴木", "花子"}, {"高橋", "健"}, {"田中", "美咲"},
+        {"伊藤", "翔太"}, {"渡辺", "陽菜"}, {"山本", "大輔"}, {"中村", "愛"},
+    };
+
+    /** Names written in hiragana or katakana only. */
+    static final String[][] KANA = {
+        {"さとう", "たろう"}, {"すずき", "はなこ"}, {"タカハシ", "ケン"}, {"たなか", "みさき"},
+    };
+
+    /** Kanji family names with kana given names and vice versa. */
+    static final String[][] MIXED = {
+        {"佐藤", "さくら"}, {"小林", "ゆうき"}, {"加藤", "アリサ"}, {"やまだ", "一郎"},
+    };
+
+    /** Long and rare names, including a character outside the BMP (𠮷). */
+    static final String[][] LONG = {
+        {"勅使河原", "宗右衛門"}, {"長谷川", "しおりこ"}, {"𠮷野", "優一郎"}, {"東坊城", "綾香"},
+    };
+
+    /** Birth dates spread over the supported range. */
+    static final String[] BIRTH_DATES = {
+        "1950-01-01", "1968-07-23", "1975-02-28", "1984-11-09",
+        "1992-04-15", "2000-02-29", "2008-12-31", "2016-06-06",
+    };
+
+    private BenchmarkInputs() {
+    }
+
+    static String[][] names(String category) {
+        switch (category) {
+            case "common": return COMMON;
+            case "kana": return KANA;
+            case "mixed": return MIXED;
+            case "long": return LONG;
+            default: throw new IllegalArgumentException("Unknown name category: " + category);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import fortune.CompatibilityEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the compatibility matrix of two synthetic guest lists, by
+ * fork-join parallelism, to check that it scales with cores.
+ *
+ *   sbt "benchmarks/Jmh/run CompatibilityBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompatibilityBenchmark {
+
+    @Param({"10000"})
+    public int people;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private final CompatibilityEngine engine = new CompatibilityEngine();
+    private ForkJoinPool pool;
+    private int[] left;
+    private int[] right;
+    private byte[] scores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        SplittableRandom random = new SplittableRandom(42);
+        left = profiles(random);
+        right = profiles(random);
+        scores = new byte[people * people];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private int[] profiles(SplittableRandom random) {
+        // Day pillar, 総格 and 人格 in their usual ranges
+        int[] profiles = new int[people];
+        for (int i = 0; i < people; i++) {
+            profiles[i] = random.nextInt(60) | (10 + random.nextInt(50)) << 6 | (5 + random.nextInt(30)) << 16;
+        }
+        return profiles;
+    }
+
+    @Benchmark
+    public byte[] scoreMatrix() {
+        engine.scoreRows(left, 0, left.length, right, scores, pool);
+        return scores;
+    }
+
+    @Benchmark
+    public int scorePair() {
+        return CompatibilityEngine.score(left[0], right[1]);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import controllers.FormFields;
+import controllers.HomeController;
+import org.openjdk.jmh.annotations.*;
+import play.Application;
+import play.core.parsers.FormUrlEncodedParser;
+import play.data.Form;
+import play.data.FormFactory;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Play's form binding of the result page forms (urlencoded
+ * decoding plus {@link FormFactory} data binding) with the direct
+ * {@link FormFields} decoding and validation the actions use.
+ *
+ * A Play application is started once per trial only to obtain the
+ * configured {@link FormFactory}.
+ *
+ *   sbt "benchmarks/Jmh/run -prof gc FormBindingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormBindingBenchmark {
+
+    private static final String FORTUNE_BODY =
+        "birthDate=1984-11-09&birthTime=07%3A30&prefecture=%E6%9D%B1%E4%BA%AC%E9%83%BD&gender=male";
+    private static final String NAME_FORTUNE_BODY =
+        "familyName=%E4%BD%90%E8%97%A4&givenName=%E5%A4%AA%E9%83%8E&gender=male";
+
+    private Application application;
+    private FormFactory formFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = new GuiceApplicationBuilder().build();
+        formFactory = application.injector().instanceOf(FormFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        play.api.Play.stop(application.asScala());
+    }
+
+    private static Http.Request post(String body) {
+        return new Http.RequestBuilder().method("POST").uri("/")
+            .bodyFormArrayValues(FormUrlEncodedParser.parseAsJavaArrayValues(body, "utf-8")).build();
+    }
+
+    @Benchmark
+    public HomeController.FortuneData formBindingFortune() {
+        Form<HomeController.FortuneData> form =
+            formFactory.form(HomeController.FortuneData.class).bindFromRequest(post(FORTUNE_BODY));
+        return form.hasErrors() ? null : form.get();
+    }
+
+    @Benchmark
+    public HomeController.FortuneData directFortune() {
+        return HomeController.FortuneData.bind(FormFields.parse(FORTUNE_BODY));
+    }
+
+    @Benchmark
+    public HomeController.NameFortuneData formBindingNameFortune() {
+        Form<HomeController.NameFortuneData> form =
+            formFactory.form(HomeController.NameFortuneData.class).bindFromRequest(post(NAME_FORTUNE_BODY));
+        return form.hasErrors() ? null : form.get();
+    }
+
+    @Benchmark
+    public HomeController.NameFortuneData directNameFortune() {
+        return HomeController.NameFortuneData.bind(FormFields.parse(NAME_FORTUNE_BODY));
+    }
+}
@@ -0,0 +1,146 @@
+package benchmarks;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load test with mixed traffic against a running instance.
+ *
+ * Each client thread repeatedly sends one of GET /, the two result pages
+ * as form POSTs and as the GETs the input forms submit, and records the
+ * latency; percentiles are printed per route at the end. Run it against
+ * the app before and after a change to compare tail latency.
+ *
+ * All clients share one address, so start the app with the rate limit
+ * disabled (or `fortune.rateLimit.burst` raised well above the request
+ * count); otherwise most requests are answered 429 and counted as errors:
+ *
+ *   sbt stage && target/universal/stage/bin/open-fortune-teller -Dplay.http.secret.key=... -Dfortune.rateLimit.enabled=false
+ *   sbt "benchmarks/runMain benchmarks.LoadTest http://localhost:9000 64 60"
+ *
+ * Arguments: base URL, number of concurrent clients, duration in seconds.
+ */
+public class LoadTest {
+
+    private static final String[] ROUTES = {
+        "GET /", "POST /fortune", "GET /fortune", "POST /namefortune", "GET /namefortune/result"
+    };
+    private static final String[] FAMILY_NAMES = {"佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村"};
+    private static final String[] GIVEN_NAMES = {"太郎", "花子", "健太", "美咲", "翔", "さくら", "ゆうき", "陽菜"};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9000";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        List<List<List<Long>>> perClient = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        int[] errors = new int[clients];
+        for (int c = 0; c < clients; c++) {
+            List<List<Long>> latencies = new ArrayList<>();
+            for (int r = 0; r < ROUTES.length; r++) {
+                latencies.add(new ArrayList<>());
+            }
+            perClient.add(latencies);
+            int client = c;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int route = random.nextInt(ROUTES.length);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request(baseUrl, route, random),
+                            HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors[client]++;
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        errors[client]++;
+                        continue;
+                    }
+                    latencies.get(route).add(System.nanoTime() - start);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%d clients, %d s, %d errors%n", clients, seconds, Arrays.stream(errors).sum());
+        System.out.printf("%-24s %10s %10s %10s %10s %10s%n", "route", "requests", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (int r = 0; r < ROUTES.length; r++) {
+            List<Long> all = new ArrayList<>();
+            for (List<List<Long>> latencies : perClient) {
+                all.addAll(latencies.get(r));
+            }
+            long[] sorted = all.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                continue;
+            }
+            System.out.printf("%-24s %10d %10.1f %10.2f %10.2f %10.2f%n",
+                ROUTES[r], sorted.length, sorted.length / (double) seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static HttpRequest request(String baseUrl, int route, ThreadLocalRandom random) {
+        switch (route) {
+            case 0:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/")).GET().build();
+            case 1:
+                return form(baseUrl + "/fortune", fortuneFields(random));
+            case 2:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/fortune?" + fortuneFields(random))).GET().build();
+            case 3:
+                return form(baseUrl + "/namefortune", nameFortuneFields(random));
+            default:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/namefortune/result?" + nameFortuneFields(random)))
+                    .GET().build();
+        }
+    }
+
+    private static String fortuneFields(ThreadLocalRandom random) {
+        return "birthDate=" + (1950 + random.nextInt(60)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10)
+            + "&birthTime=&prefecture=" + encode("東京都")
+            + "&gender=" + (random.nextBoolean() ? "male" : "female");
+    }
+
+    private static String nameFortuneFields(ThreadLocalRandom random) {
+        return "familyName=" + encode(FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)])
+            + "&givenName=" + encode(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)])
+            + "&gender=" + (random.nextBoolean() ? "male" : "female");
+    }
+
+    private static HttpRequest form(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import fortune.NameFortuneEngine;
+import fortune.StrokeDictionary;
+import models.NameFortune;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the name fortune (姓名判断) engine.
+ *
+ *   sbt "benchmarks/Jmh/run -prof gc NameFortuneBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameFortuneBenchmark {
+
+    @Param({"common", "kana", "mixed", "long"})
+    public String names;
+
+    private final NameFortuneEngine engine = new NameFortuneEngine(StrokeDictionary.builtin());
+
+    private String[][] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        inputs = BenchmarkInputs.names(names);
+    }
+
+    private String[] nextName() {
+        String[] name = inputs[next];
+        next = (next + 1) % inputs.length;
+        return name;
+    }
+
+    @Benchmark
+    public int calculateStrokes() {
+        return engine.calculateStrokes(nextName()[0]);
+    }
+
+    @Benchmark
+    public NameFortune generateNameFortune() {
+        String[] name = nextName();
+        return engine.generateNameFortune(name[0], name[1]);
+    }
+
+    @Benchmark
+    public NameFortune normalizeAndGenerateNameFortune() {
+        String[] name = nextName();
+        return engine.generateNameFortune(
+            NameFortuneEngine.normalize(name[0]), NameFortuneEngine.normalize(name[1]));
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import fortune.GivenNameIndex;
+import fortune.NameFortuneEngine;
+import fortune.StrokeDatabase;
+import fortune.StrokeDictionary;
+import models.NameCandidate;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the reverse name search over a synthetic 100k-name dictionary
+ * against scoring every name with the engine.
+ *
+ *   sbt "benchmarks/Jmh/run NameSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameSearchBenchmark {
+
+    private static final String[] FAMILY_NAMES = {"佐藤", "鈴木", "高橋", "田中", "林", "渡辺", "山本", "中村"};
+
+    @Param({"100000"})
+    public int dictionarySize;
+
+    private NameFortuneEngine engine;
+    private GivenNameIndex index;
+    private List<String> names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StrokeDictionary dictionary = StrokeDictionary.withDatabase(StrokeDatabase.open(Paths.get("conf/strokes.bin")));
+        engine = new NameFortuneEngine(dictionary);
+
+        // One to three characters from the common kanji block and hiragana, fixed seed
+        SplittableRandom random = new SplittableRandom(42);
+        names = new ArrayList<>(dictionarySize);
+        StringBuilder name = new StringBuilder();
+        while (names.size() < dictionarySize) {
+            name.setLength(0);
+            int length = 1 + random.nextInt(3);
+            boolean kana = random.nextInt(10) == 0;
+            for (int i = 0; i < length; i++) {
+                name.append(kana ? (char) (0x3042 + random.nextInt(80)) : (char) (0x4E00 + random.nextInt(6000)));
+            }
+            names.add(name.toString());
+        }
+        int[] genders = new int[names.size()];
+        for (int i = 0; i < genders.length; i++) {
+            genders[i] = 1 + random.nextInt(3);
+        }
+        index = GivenNameIndex.of(dictionary, names, genders);
+    }
+
+    private String nextFamilyName() {
+        String familyName = FAMILY_NAMES[next];
+        next = (next + 1) % FAMILY_NAMES.length;
+        return familyName;
+    }
+
+    @Benchmark
+    public List<NameCandidate> searchTop20() {
+        return index.search(nextFamilyName(), GivenNameIndex.FEMALE, 0, false, "", 0, 20);
+    }
+
+    @Benchmark
+    public List<NameCandidate> searchWithRareCharacter() {
+        return index.search(nextFamilyName(), GivenNameIndex.ANY_GENDER, 2, false, "愛", 0, 20);
+    }
+
+    @Benchmark
+    public int bruteForceBestScore() {
+        String familyName = nextFamilyName();
+        int best = 0;
+        for (String name : names) {
+            best = Math.max(best, GivenNameIndex.score(engine.generateNameFortune(familyName, name)));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time-to-first-fast-request of a freshly started instance.
+ *
+ * Starts the staged app, polls until it accepts connections, then sends
+ * sequential GET /fortune and GET /namefortune/result requests (distinct
+ * inputs, so the HTTP caches do not help) and reports the latency of the
+ * first requests and how many it took until a request was within twice
+ * the median of the last 100. Compare runs with `fortune.warmup.enabled`
+ * on and off, and with and without the AppCDS archive:
+ *
+ *   sbt appCds
+ *   sbt "benchmarks/runMain benchmarks.StartupProbe target/universal/stage 500"
+ *   sbt "benchmarks/runMain benchmarks.StartupProbe target/universal/stage 500 -Dfortune.warmup.enabled=false"
+ *
+ * Arguments: stage directory, number of requests, extra arguments for the start script.
+ */
+public class StartupProbe {
+
+    private static final int PORT = 19098;
+    private static final String[] FAMILY_NAMES = {"佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村"};
+    private static final String[] GIVEN_NAMES = {"太郎", "花子", "健太", "美咲", "翔", "さくら", "ゆうき", "陽菜"};
+
+    public static void main(String[] args) throws Exception {
+        String stageDir = args.length > 0 ? args[0] : "target/universal/stage";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        List<String> command = new ArrayList<>(List.of(stageDir + "/bin/open-fortune-teller",
+            "-Dhttp.port=" + PORT, "-Dpidfile.path=/dev/null", "-Dfortune.audit.enabled=false",
+            "-Dfortune.rateLimit.enabled=false", "-Dplay.http.secret.key=startup-probe-only-this-key-is-never-used-to-serve"));
+        command.addAll(Arrays.asList(args).subList(Math.min(2, args.length), args.length));
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        String base = "http://localhost:" + PORT;
+        long launch = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The app exited with " + process.exitValue());
+                }
+                try {
+                    http.send(HttpRequest.newBuilder(URI.create(base + "/")).build(), HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (IOException e) {
+                    Thread.sleep(50);
+                }
+            }
+            double readyMillis = (System.nanoTime() - launch) / 1e6;
+
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                long start = System.nanoTime();
+                HttpResponse<Void> response = http.send(request(base, i), HttpResponse.BodyHandlers.discarding());
+                latencies[i] = System.nanoTime() - start;
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Request " + i + " returned " + response.statusCode());
+                }
+            }
+
+            long[] tail = Arrays.copyOfRange(latencies, Math.max(0, requests - 100), requests);
+            Arrays.sort(tail);
+            long median = tail[tail.length / 2];
+            int firstFast = 0;
+            while (firstFast < requests && latencies[firstFast] > 2 * median) {
+                firstFast++;
+            }
+            long slowNanos = 0;
+            for (int i = 0; i < firstFast; i++) {
+                slowNanos += latencies[i];
+            }
+            System.out.printf("accepting connections after %.0f ms%n", readyMillis);
+            System.out.printf("first request %.2f ms, 10th %.2f ms, steady median %.2f ms%n",
+                latencies[0] / 1e6, latencies[Math.min(9, requests - 1)] / 1e6, median / 1e6);
+            System.out.printf("first fast request: #%d, %.0f ms after launch (%.0f ms spent in slower requests)%n",
+                firstFast + 1, readyMillis + slowNanos / 1e6, slowNanos / 1e6);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static HttpRequest request(String base, int i) {
+        String uri = i % 2 == 0
+            ? "/fortune?birthDate=" + (1950 + i / 2 % 60) + "-0" + (1 + i % 9) + "-1" + (i % 10)
+                + "&birthTime=&prefecture=&gender=" + (i % 4 == 0 ? "male" : "female")
+            : "/namefortune/result?familyName=" + encode(FAMILY_NAMES[i / 2 % FAMILY_NAMES.length])
+                + "&givenName=" + encode(GIVEN_NAMES[i / 16 % GIVEN_NAMES.length]) + "&gender=" + (i % 4 == 1 ? "male" : "female");
+        return HttpRequest.newBuilder(URI.create(base + uri)).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import fortune.StrokeDictionary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures stroke lookups against the shared stroke dictionary.
+ *
+ * Run with the GC profiler to check that lookups do not allocate
+ * (gc.alloc.rate.norm should be ~0 B/op):
+ *
+ *   sbt "benchmarks/Jmh/run -prof gc StrokeDictionaryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrokeDictionaryBenchmark {
+
+    @Param({"佐藤", "たなか", "高橋健太郎", "ヤマモト"})
+    public String name;
+
+    private final StrokeDictionary dictionary = StrokeDictionary.builtin();
+
+    @Benchmark
+    public int totalStrokes() {
+        return dictionary.totalStrokes(name);
+    }
+
+    @Benchmark
+    public int singleLookup() {
+        return dictionary.strokes(name.charAt(0));
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import controllers.AssetsFinder;
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import fortune.NameFortuneEngine;
+import fortune.StrokeDictionary;
+import models.BirthChart;
+import models.NameFortune;
+import models.WeeklyFortune;
+import org.openjdk.jmh.annotations.*;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full Twirl render of the result pages, including
+ * building the response body string.
+ *
+ * A Play application is started once per trial only to obtain the
+ * configured {@link AssetsFinder} the templates need.
+ *
+ *   sbt "benchmarks/Jmh/run -prof gc TemplateRenderBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    private Application application;
+    private AssetsFinder assetsFinder;
+    private BirthChart birthChart;
+    private WeeklyFortune weeklyFortune;
+    private NameFortune nameFortune;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = new GuiceApplicationBuilder().build();
+        assetsFinder = application.injector().instanceOf(AssetsFinder.class);
+        birthChart = new FourPillarsEngine().chart(LocalDate.of(1984, 11, 9), LocalTime.of(7, 30), "東京都");
+        weeklyFortune = FortuneWeek.startingAt(LocalDate.of(2024, 3, 15)).fortuneFor(birthChart);
+        nameFortune = new NameFortuneEngine(StrokeDictionary.builtin()).generateNameFortune("佐藤", "太郎");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        play.api.Play.stop(application.asScala());
+    }
+
+    @Benchmark
+    public String renderFortune() {
+        return views.html.fortune.render(
+            "1984-11-09", "07:30", "東京都", "male",
+            birthChart.getYearPillarName(), birthChart.getMonthPillarName(),
+            birthChart.getDayPillarName(), birthChart.getHourPillarName(),
+            weeklyFortune, assetsFinder
+        ).body();
+    }
+
+    @Benchmark
+    public String renderNameFortuneResult() {
+        return views.html.name_fortune_result.render(
+            "佐藤", "太郎", "male", nameFortune, assetsFinder
+        ).body();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import models.BirthChart;
+import models.WeeklyFortune;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the four pillars weekly fortune, both with the window that
+ * is precomputed once per day (the request path) and with the window
+ * built from scratch, and the birth chart behind it.
+ *
+ *   sbt "benchmarks/Jmh/run -prof gc WeeklyFortuneBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeeklyFortuneBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private static final LocalTime BIRTH_TIME = LocalTime.of(7, 30);
+
+    private final FortuneWeek week = FortuneWeek.startingAt(TODAY);
+    private final FourPillarsEngine engine = new FourPillarsEngine();
+
+    private int next;
+
+    private String nextBirthDate() {
+        String birthDate = BenchmarkInputs.BIRTH_DATES[next];
+        next = (next + 1) % BenchmarkInputs.BIRTH_DATES.length;
+        return birthDate;
+    }
+
+    @Benchmark
+    public WeeklyFortune generateWeeklyFortune() {
+        return week.fortuneFor(LocalDate.parse(nextBirthDate()));
+    }
+
+    @Benchmark
+    public WeeklyFortune generateWeeklyFortuneWithoutWindow() {
+        return FortuneWeek.startingAt(TODAY).fortuneFor(LocalDate.parse(nextBirthDate()));
+    }
+
+    @Benchmark
+    public BirthChart computeBirthChart() {
+        return engine.chart(LocalDate.parse(nextBirthDate()), BIRTH_TIME, "東京都");
+    }
+}
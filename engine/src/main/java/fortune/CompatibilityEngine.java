@@ -0,0 +1,203 @@
+package fortune;
+
+import models.BirthChart;
+import models.Compatibility;
+import models.NameFortune;
+import models.Rating;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compatibility (相性) of two people from their birth charts and names.
+ *
+ * A score of 0..100 adds three parts:
+ * <ul>
+ *   <li>day masters (up to 40): a stem combination (干合, e.g. 甲 and
+ *       己) 40, otherwise the five-element relation of the two day stems
+ *       (相生 30, 比和 20, 相剋 5). The five combinations are all 相剋
+ *       pairs, so they form their own tier instead of a bonus</li>
+ *   <li>day branches (up to 20): 六合 20, 三合 15, the same branch 10,
+ *       a clash (冲) 0 and 8 otherwise</li>
+ *   <li>names (up to 40): the 吉凶 of the two 総格 added together (8
+ *       points per step above 凶) and the element relation of the last
+ *       digits of the two 人格 (相生 16, 比和 12, 相剋 4)</li>
+ * </ul>
+ * A person is packed into one int ({@link #profile}), and each part is
+ * a table lookup, so scoring a pair allocates nothing. The matrix mode
+ * writes N x M scores into a byte array, split by rows across a
+ * fork-join pool.
+ *
+ * Stateless and thread-safe.
+ */
+public final class CompatibilityEngine {
+
+    /** Highest possible score. */
+    public static final int MAX_SCORE = 100;
+
+    /** Pairs scored by one fork-join task at least, so tasks stay coarse. */
+    private static final int MIN_PAIRS_PER_TASK = 1 << 16;
+
+    private static final int MAX_STROKES = 1023;
+
+    /** Day pillar part (day masters and branches) by pillar * 60 + pillar. */
+    private static final byte[] PILLAR_SCORES = pillarScores();
+
+    /** 総格 part by the sum of the two 総格. */
+    private static final byte[] TOTAL_SCORES = totalScores();
+
+    /** 人格 part by the last digits of the two 人格. */
+    private static final byte[] PERSON_SCORES = personScores();
+
+    /**
+     * Packs the parts of a person that the score depends on into an int:
+     * the day pillar and the 総格 and 人格 of the name.
+     */
+    public static int profile(BirthChart chart, NameFortune name) {
+        return chart.getDayPillar()
+            | Math.min(name.getSoKaku(), MAX_STROKES) << 6
+            | Math.min(name.getJinKaku(), MAX_STROKES) << 16;
+    }
+
+    /**
+     * Total score of two packed profiles.
+     */
+    public static int score(int first, int second) {
+        return PILLAR_SCORES[(first & 0x3F) * 60 + (second & 0x3F)]
+            + TOTAL_SCORES[(first >>> 6 & MAX_STROKES) + (second >>> 6 & MAX_STROKES)]
+            + PERSON_SCORES[(first >>> 16) % 10 * 10 + (second >>> 16) % 10];
+    }
+
+    /**
+     * Score of two people with its parts.
+     */
+    public Compatibility compare(BirthChart firstChart, NameFortune firstName,
+                                 BirthChart secondChart, NameFortune secondName) {
+        int score = score(profile(firstChart, firstName), profile(secondChart, secondName));
+        int pillars = PILLAR_SCORES[firstChart.getDayPillar() * 60 + secondChart.getDayPillar()];
+        return new Compatibility(score, pillars, score - pillars);
+    }
+
+    /**
+     * Scores every pair of {@code rows} x {@code columns} profiles into a
+     * row-major byte array, in parallel on the given pool.
+     */
+    public byte[] scoreMatrix(int[] rows, int[] columns, ForkJoinPool pool) {
+        byte[] scores = new byte[Math.multiplyExact(rows.length, columns.length)];
+        scoreRows(rows, 0, rows.length, columns, scores, pool);
+        return scores;
+    }
+
+    /**
+     * Scores rows {@code [from, to)} against all columns into {@code scores},
+     * which holds {@code (to - from) x columns.length} bytes, in parallel on the given pool.
+     */
+    public void scoreRows(int[] rows, int from, int to, int[] columns, byte[] scores, ForkJoinPool pool) {
+        if (scores.length < (long) (to - from) * columns.length) {
+            throw new IllegalArgumentException("Score array too small");
+        }
+        int rowsPerTask = Math.max(1, MIN_PAIRS_PER_TASK / Math.max(1, columns.length));
+        pool.invoke(new RowTask(rows, from, to, from, columns, scores, rowsPerTask));
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        private final int offset;
+        private final int[] columns;
+        private final byte[] scores;
+        private final int rowsPerTask;
+
+        RowTask(int[] rows, int from, int to, int offset, int[] columns, byte[] scores, int rowsPerTask) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+            this.columns = columns;
+            this.scores = scores;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > rowsPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(rows, from, middle, offset, columns, scores, rowsPerTask),
+                    new RowTask(rows, middle, to, offset, columns, scores, rowsPerTask));
+                return;
+            }
+            int width = columns.length;
+            for (int r = from; r < to; r++) {
+                int row = rows[r];
+                int base = (r - offset) * width;
+                for (int c = 0; c < width; c++) {
+                    scores[base + c] = (byte) score(row, columns[c]);
+                }
+            }
+        }
+    }
+
+    private static byte[] pillarScores() {
+        byte[] table = new byte[60 * 60];
+        for (int a = 0; a < 60; a++) {
+            for (int b = 0; b < 60; b++) {
+                table[a * 60 + b] = (byte) (stemScore(Sexagenary.stem(a), Sexagenary.stem(b))
+                    + branchScore(Sexagenary.branch(a), Sexagenary.branch(b)));
+            }
+        }
+        return table;
+    }
+
+    private static int stemScore(int a, int b) {
+        // 干合: 甲己, 乙庚, 丙辛, 丁壬, 戊癸
+        if (Math.abs(a - b) == 5) {
+            return 40;
+        }
+        return elementScore(a / 2, b / 2, 30, 20, 5);
+    }
+
+    private static int branchScore(int a, int b) {
+        if ((a + b) % 12 == 1) {
+            return 20;  // 六合
+        } else if (a == b) {
+            return 10;
+        } else if ((a - b) % 4 == 0) {
+            return 15;  // 三合
+        } else if (Math.abs(a - b) == 6) {
+            return 0;   // 冲
+        }
+        return 8;
+    }
+
+    /**
+     * Points for the relation of two of the five elements (木 火 土 金 水, each generating the next).
+     */
+    private static int elementScore(int a, int b, int generating, int same, int controlling) {
+        if (a == b) {
+            return same;
+        } else if ((a + 1) % 5 == b || (b + 1) % 5 == a) {
+            return generating;
+        }
+        return controlling;
+    }
+
+    private static byte[] totalScores() {
+        byte[] table = new byte[2 * MAX_STROKES + 1];
+        for (int total = 0; total < table.length; total++) {
+            table[total] = (byte) (8 * (Rating.POOR.ordinal() - NameFortuneEngine.rating(total).ordinal()));
+        }
+        return table;
+    }
+
+    private static byte[] personScores() {
+        // 数理五行: last digit 1-2 木, 3-4 火, 5-6 土, 7-8 金, 9-0 水
+        byte[] table = new byte[100];
+        for (int a = 0; a < 10; a++) {
+            for (int b = 0; b < 10; b++) {
+                table[a * 10 + b] = (byte) elementScore((a + 9) % 10 / 2, (b + 9) % 10 / 2, 16, 12, 4);
+            }
+        }
+        return table;
+    }
+}
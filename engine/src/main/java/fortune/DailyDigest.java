@@ -0,0 +1,72 @@
+package fortune;
+
+import java.time.LocalDate;
+
+/**
+ * Today's rating for every supported birth date, as one byte per date.
+ *
+ * The rating of a day depends only on its day pillar and the birth day
+ * pillar (birth time unknown), so a whole day is precomputed once and a
+ * lookup is a single array index by birth date. Immutable; a new digest
+ * is computed for each day.
+ */
+public final class DailyDigest {
+
+    private static final long FIRST_EPOCH_DAY = LocalDate.of(FourPillarsEngine.MIN_YEAR, 1, 1).toEpochDay();
+    private static final long LAST_EPOCH_DAY = LocalDate.of(FourPillarsEngine.MAX_YEAR, 12, 31).toEpochDay();
+
+    private final LocalDate day;
+    private final byte[] ratings;
+
+    private DailyDigest(LocalDate day, byte[] ratings) {
+        this.day = day;
+        this.ratings = ratings;
+    }
+
+    /**
+     * Computes the ratings of the given day for all birth dates from
+     * {@link FourPillarsEngine#MIN_YEAR} to {@link FourPillarsEngine#MAX_YEAR}.
+     */
+    public static DailyDigest compute(LocalDate day) {
+        FortuneWeek week = FortuneWeek.startingAt(day);
+        byte[] ratings = new byte[(int) (LAST_EPOCH_DAY - FIRST_EPOCH_DAY + 1)];
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = (byte) week.ratingIndex(0, Sexagenary.dayPillar(FIRST_EPOCH_DAY + i));
+        }
+        return new DailyDigest(day, ratings);
+    }
+
+    /**
+     * Whether the birth date is in the supported range.
+     */
+    public static boolean supports(LocalDate birthDate) {
+        long epochDay = birthDate.toEpochDay();
+        return epochDay >= FIRST_EPOCH_DAY && epochDay <= LAST_EPOCH_DAY;
+    }
+
+    /**
+     * The day the ratings are for.
+     */
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * Number of birth dates covered.
+     */
+    public int size() {
+        return ratings.length;
+    }
+
+    /**
+     * Rating index (0..3) of the day for someone born on the given date.
+     *
+     * @throws IllegalArgumentException if the birth date is outside the supported range
+     */
+    public int ratingIndex(LocalDate birthDate) {
+        if (!supports(birthDate)) {
+            throw new IllegalArgumentException("Birth date out of range: " + birthDate);
+        }
+        return ratings[(int) (birthDate.toEpochDay() - FIRST_EPOCH_DAY)];
+    }
+}
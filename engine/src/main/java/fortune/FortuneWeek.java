@@ -0,0 +1,156 @@
+package fortune;
+
+import models.BirthChart;
+import models.DailyFortune;
+import models.Rating;
+import models.WeeklyFortune;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The 7-day four pillars fortune window starting at a given date.
+ *
+ * A day's rating compares its day pillar with the birth day pillar:
+ * the five-element relation between the day stem and the birth day
+ * stem (日主) gives the base rating, which a clash (冲) of the branches
+ * lowers and a combination (六合) raises by one step. All 60 x 60
+ * combinations are tabulated once, and the day labels and day pillars
+ * are computed once per window, so a per-user result is one table
+ * lookup per day.
+ */
+public final class FortuneWeek {
+
+    /** Number of days in the window. */
+    public static final int DAYS = 7;
+
+    private static final String[] WEEK_DAYS = {"日", "月", "火", "水", "木", "金", "土"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("M月d日");
+
+    /** Rating index by birth day pillar * 60 + target day pillar. */
+    private static final byte[] RATINGS = ratingTable();
+
+    private final LocalDate firstDay;
+    private final String[] dayLabels;
+    private final int[] dayPillars;
+
+    private FortuneWeek(LocalDate firstDay, String[] dayLabels, int[] dayPillars) {
+        this.firstDay = firstDay;
+        this.dayLabels = dayLabels;
+        this.dayPillars = dayPillars;
+    }
+
+    /**
+     * Precomputes the window starting at the given date.
+     */
+    public static FortuneWeek startingAt(LocalDate today) {
+        String[] dayLabels = new String[DAYS];
+        int[] dayPillars = new int[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            LocalDate currentDate = today.plusDays(i);
+            dayLabels[i] = getDayName(currentDate, i);
+            dayPillars[i] = Sexagenary.dayPillar(currentDate);
+        }
+        return new FortuneWeek(today, dayLabels, dayPillars);
+    }
+
+    /**
+     * First day (today) of the window.
+     */
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Rating index (0..3) of a day for someone with the given birth day pillar.
+     */
+    public int ratingIndex(int day, int birthDayPillar) {
+        return RATINGS[birthDayPillar * 60 + dayPillars[day]];
+    }
+
+    /**
+     * Rating index (0..3) of a single date for someone with the given birth day pillar,
+     * without precomputing a window.
+     */
+    public static int ratingIndex(LocalDate date, int birthDayPillar) {
+        return RATINGS[birthDayPillar * 60 + Sexagenary.dayPillar(date)];
+    }
+
+    /**
+     * Weekly fortune for a birth chart.
+     */
+    public WeeklyFortune fortuneFor(BirthChart chart) {
+        return fortuneFor(chart.getDayPillar());
+    }
+
+    /**
+     * Weekly fortune for someone born on the given date, using the day pillar
+     * of the calendar date (birth time unknown).
+     */
+    public WeeklyFortune fortuneFor(LocalDate birthDate) {
+        return fortuneFor(Sexagenary.dayPillar(birthDate));
+    }
+
+    private WeeklyFortune fortuneFor(int birthDayPillar) {
+        DailyFortune[] days = new DailyFortune[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            days[i] = DailyFortune.of(Rating.fromIndex(ratingIndex(i, birthDayPillar)));
+        }
+        return new WeeklyFortune(dayLabels, days);
+    }
+
+    private static byte[] ratingTable() {
+        byte[] table = new byte[60 * 60];
+        for (int birth = 0; birth < 60; birth++) {
+            for (int target = 0; target < 60; target++) {
+                table[birth * 60 + target] = (byte) rate(birth, target);
+            }
+        }
+        return table;
+    }
+
+    private static int rate(int birthDayPillar, int targetDayPillar) {
+        // Five elements of the stems: 木 火 土 金 水, each generating the next
+        int self = Sexagenary.stem(birthDayPillar) / 2;
+        int other = Sexagenary.stem(targetDayPillar) / 2;
+        int rating;
+        if ((other + 1) % 5 == self) {
+            rating = Rating.EXCELLENT.ordinal();  // 印: the day supports the day master
+        } else if (other == self || (self + 2) % 5 == other) {
+            rating = Rating.GOOD.ordinal();       // 比和 and 財
+        } else if ((self + 1) % 5 == other) {
+            rating = Rating.AVERAGE.ordinal();    // 食傷: the day master gives out
+        } else {
+            rating = Rating.POOR.ordinal();       // 官殺: the day controls the day master
+        }
+
+        int birthBranch = Sexagenary.branch(birthDayPillar);
+        int targetBranch = Sexagenary.branch(targetDayPillar);
+        if (Math.abs(birthBranch - targetBranch) == 6) {
+            rating = Math.min(rating + 1, Rating.POOR.ordinal());
+        } else if ((birthBranch + targetBranch) % 12 == 1) {
+            rating = Math.max(rating - 1, Rating.EXCELLENT.ordinal());
+        }
+        return rating;
+    }
+
+    /**
+     * Get formatted day name with date.
+     */
+    private static String getDayName(LocalDate date, int dayOffset) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        int dayIndex = dayOfWeek.getValue() % 7; // Sunday = 0
+
+        String dayName = WEEK_DAYS[dayIndex];
+        String dateStr = date.format(DATE_FORMAT);
+
+        if (dayOffset == 0) {
+            return "今日 (" + dateStr + " " + dayName + "曜日)";
+        } else if (dayOffset == 1) {
+            return "明日 (" + dateStr + " " + dayName + "曜日)";
+        } else {
+            return dateStr + " (" + dayName + "曜日)";
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package fortune;
+
+import models.BirthChart;
+import models.DailyFortune;
+import models.Rating;
+import models.WeeklyFortune;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Four pillars (四柱推命) fortune calculation.
+ *
+ * The year and month pillars follow the solar calendar: the year
+ * changes at 立春 and the month at each sectional term (節), compared
+ * against the birth instant in Japan Standard Time. The day and hour
+ * pillars use local mean time at the birth prefecture, with the day
+ * changing at midnight; a birth between 23:00 and midnight keeps its
+ * day pillar but takes the 子 hour stem of the following day (夜子時).
+ * Summer time (1948-1951) is not taken into account.
+ *
+ * Stateless and thread-safe. Callers that score many birth dates for
+ * the same day should reuse one {@link FortuneWeek} instead.
+ */
+public final class FourPillarsEngine {
+
+    /** First supported birth year. */
+    public static final int MIN_YEAR = 1900;
+
+    /** Last supported birth year. */
+    public static final int MAX_YEAR = 2100;
+
+    private static final ZoneOffset JST = ZoneOffset.ofHours(9);
+    private static final LocalTime NOON = LocalTime.NOON;
+
+    private final SolarTerms solarTerms;
+
+    public FourPillarsEngine() {
+        this(SolarTerms.bundled());
+    }
+
+    public FourPillarsEngine(SolarTerms solarTerms) {
+        this.solarTerms = solarTerms;
+    }
+
+    /**
+     * Computes the birth chart.
+     *
+     * @param birthTime birth time in Japan Standard Time, or null if unknown
+     * @param prefecture birth prefecture for the local mean time correction, or null if unknown
+     * @throws IllegalArgumentException if the birth date is outside {@link #MIN_YEAR}..{@link #MAX_YEAR}
+     */
+    public BirthChart chart(LocalDate birthDate, LocalTime birthTime, String prefecture) {
+        if (birthDate.getYear() < MIN_YEAR || birthDate.getYear() > MAX_YEAR) {
+            throw new IllegalArgumentException("Birth date out of range: " + birthDate);
+        }
+        LocalDateTime standardTime = birthDate.atTime(birthTime != null ? birthTime : NOON);
+        long epochMinute = Math.floorDiv(standardTime.toEpochSecond(JST), 60L);
+        int solarMonth = solarTerms.solarMonth(epochMinute, birthDate.getYear());
+        int yearPillar = Sexagenary.yearPillar(Math.floorDiv(solarMonth, 12));
+        int monthPillar = Sexagenary.monthPillar(solarMonth);
+
+        if (birthTime == null) {
+            return new BirthChart(yearPillar, monthPillar, Sexagenary.dayPillar(birthDate), -1);
+        }
+        LocalDateTime meanTime = standardTime.plusMinutes(Prefectures.localMeanTimeOffsetMinutes(prefecture));
+        int dayPillar = Sexagenary.dayPillar(meanTime.toLocalDate());
+        int hourBranch = Sexagenary.hourBranch(meanTime.getHour());
+        int hourPillar = meanTime.getHour() == 23
+            ? Sexagenary.hourPillar((dayPillar + 1) % 60, hourBranch)
+            : Sexagenary.hourPillar(dayPillar, hourBranch);
+        return new BirthChart(yearPillar, monthPillar, dayPillar, hourPillar);
+    }
+
+    /**
+     * Generate the fortune for the 7 days starting at {@code today}.
+     */
+    public WeeklyFortune generateWeeklyFortune(LocalDate today, BirthChart chart) {
+        return FortuneWeek.startingAt(today).fortuneFor(chart);
+    }
+
+    /**
+     * Generate the fortune for the 7 days starting at {@code today}, birth time unknown.
+     */
+    public WeeklyFortune generateWeeklyFortune(LocalDate today, LocalDate birthDate) {
+        return FortuneWeek.startingAt(today).fortuneFor(birthDate);
+    }
+
+    /**
+     * Generate the fortune for a single day.
+     */
+    public DailyFortune generateDailyFortune(LocalDate date, BirthChart chart) {
+        return DailyFortune.of(Rating.fromIndex(FortuneWeek.ratingIndex(date, chart.getDayPillar())));
+    }
+
+    /**
+     * Generate the fortune for a single day, birth time unknown.
+     */
+    public DailyFortune generateDailyFortune(LocalDate date, LocalDate birthDate) {
+        return DailyFortune.of(Rating.fromIndex(FortuneWeek.ratingIndex(date, Sexagenary.dayPillar(birthDate))));
+    }
+}
@@ -0,0 +1,271 @@
+package fortune;
+
+import models.NameCandidate;
+import models.NameFortune;
+import models.Rating;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Given names grouped by stroke signature, for finding lucky given names
+ * for a family name.
+ *
+ * For a fixed family name, the five numbers of a full name depend only
+ * on the given name's total strokes, the strokes of its first character
+ * and whether it has one character (霊数). Names are sorted by that
+ * signature, so a search scores each signature group once (a few
+ * thousand groups even for large dictionaries) and then walks the
+ * best groups' names in order until enough candidates pass the filters.
+ *
+ * Immutable and thread-safe once built.
+ */
+public final class GivenNameIndex {
+
+    /** Gender mask bits of a dictionary entry. */
+    public static final int MALE = 1;
+    public static final int FEMALE = 2;
+    public static final int ANY_GENDER = MALE | FEMALE;
+
+    /** Highest possible {@link #score(NameFortune)}. */
+    public static final int MAX_SCORE = 18;
+
+    private final StrokeDictionary dictionary;
+    private final String[] names;
+    private final byte[] genders;
+    private final byte[] lengths;
+    private final boolean[] kanaOnly;
+
+    // Per signature group: its names are names[groupStart[g] .. groupStart[g + 1])
+    private final int[] groupStart;
+    private final int[] groupStrokes;
+    private final int[] groupFirstStrokes;
+    private final boolean[] groupSingle;
+
+    private GivenNameIndex(StrokeDictionary dictionary, String[] names, byte[] genders, byte[] lengths, boolean[] kanaOnly,
+                           int[] groupStart, int[] groupStrokes, int[] groupFirstStrokes, boolean[] groupSingle) {
+        this.dictionary = dictionary;
+        this.names = names;
+        this.genders = genders;
+        this.lengths = lengths;
+        this.kanaOnly = kanaOnly;
+        this.groupStart = groupStart;
+        this.groupStrokes = groupStrokes;
+        this.groupFirstStrokes = groupFirstStrokes;
+        this.groupSingle = groupSingle;
+    }
+
+    /**
+     * Reads a dictionary file with one name per line, optionally followed by a tab and
+     * `m`, `f` or `u` (either gender, the default). Blank lines and `#` comments are skipped.
+     */
+    public static GivenNameIndex read(Path path, StrokeDictionary dictionary) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Integer> genders = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                String name = tab < 0 ? line : line.substring(0, tab).trim();
+                String gender = tab < 0 ? "u" : line.substring(tab + 1).trim();
+                names.add(name);
+                genders.add(gender.startsWith("m") ? MALE : gender.startsWith("f") ? FEMALE : ANY_GENDER);
+            }
+        }
+        return of(dictionary, names, genders.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Builds an index; {@code genders} holds a gender mask per name.
+     * Names are NFKC-normalized, and duplicates keep their first gender mask.
+     */
+    public static GivenNameIndex of(StrokeDictionary dictionary, List<String> names, int[] genders) {
+        int count = names.size();
+        String[] normalized = new String[count];
+        long[] keys = new long[count];
+        int unique = 0;
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            String name = NameFortuneEngine.normalize(names.get(i));
+            if (name.isEmpty() || !seen.add(name)) {
+                continue;
+            }
+            int strokes = 0;
+            int first = 0;
+            int length = 0;
+            for (int j = 0; j < name.length(); ) {
+                int codePoint = name.codePointAt(j);
+                int s = dictionary.strokes(codePoint);
+                if (length == 0) {
+                    first = s;
+                }
+                strokes += s;
+                length++;
+                j += Character.charCount(codePoint);
+            }
+            // Sort key: signature, then dictionary order; the low bits keep the original position
+            long signature = ((long) strokes << 9 | (long) first << 1 | (length == 1 ? 1 : 0));
+            keys[unique] = signature << 32 | i;
+            normalized[i] = name;
+            unique++;
+        }
+        long[] sorted = Arrays.copyOf(keys, unique);
+        Arrays.sort(sorted);
+
+        String[] indexNames = new String[unique];
+        byte[] indexGenders = new byte[unique];
+        byte[] indexLengths = new byte[unique];
+        boolean[] indexKana = new boolean[unique];
+        int[] starts = new int[unique + 1];
+        int[] strokes = new int[unique];
+        int[] firsts = new int[unique];
+        boolean[] singles = new boolean[unique];
+        int groups = 0;
+        long previous = -1;
+        for (int i = 0; i < unique; i++) {
+            long signature = sorted[i] >>> 32;
+            int source = (int) sorted[i];
+            String name = normalized[source];
+            indexNames[i] = name;
+            indexGenders[i] = (byte) genders[source];
+            indexLengths[i] = (byte) Math.min(name.codePointCount(0, name.length()), Byte.MAX_VALUE);
+            indexKana[i] = isKana(name);
+            if (signature != previous) {
+                starts[groups] = i;
+                strokes[groups] = (int) (signature >>> 9);
+                firsts[groups] = (int) (signature >>> 1 & 0xFF);
+                singles[groups] = (signature & 1) != 0;
+                groups++;
+                previous = signature;
+            }
+        }
+        starts[groups] = unique;
+        return new GivenNameIndex(dictionary, indexNames, indexGenders, indexLengths, indexKana,
+            Arrays.copyOf(starts, groups + 1), Arrays.copyOf(strokes, groups),
+            Arrays.copyOf(firsts, groups), Arrays.copyOf(singles, groups));
+    }
+
+    /** Number of names in the index. */
+    public int size() {
+        return names.length;
+    }
+
+    /** Number of distinct stroke signatures. */
+    public int groupCount() {
+        return groupStrokes.length;
+    }
+
+    /**
+     * Finds the best-scoring given names for a family name.
+     *
+     * @param familyName family name, normalized with {@link NameFortuneEngine#normalize(String)}
+     * @param gender gender mask the names must match ({@link #MALE}, {@link #FEMALE} or {@link #ANY_GENDER})
+     * @param length required length in characters, or 0 for any length
+     * @param kanaOnly only names written entirely in hiragana or katakana
+     * @param requiredCharacters characters that must all occur in the name (may be empty)
+     * @param minimumScore lowest accepted {@link #score(NameFortune)}
+     * @param limit maximum number of candidates
+     * @return candidates, best score first
+     */
+    public List<NameCandidate> search(String familyName, int gender, int length, boolean kanaOnly,
+                                      String requiredCharacters, int minimumScore, int limit) {
+        int familyNameStrokes = 0;
+        int familyNameLength = 0;
+        int familyNameLast = 0;
+        for (int i = 0; i < familyName.length(); ) {
+            int codePoint = familyName.codePointAt(i);
+            familyNameLast = dictionary.strokes(codePoint);
+            familyNameStrokes += familyNameLast;
+            familyNameLength++;
+            i += Character.charCount(codePoint);
+        }
+
+        // Rank the signature groups: best score first, then fewer strokes
+        int groups = groupStrokes.length;
+        long[] ranking = new long[groups];
+        int ranked = 0;
+        for (int g = 0; g < groups; g++) {
+            int tenKaku = familyNameStrokes + (familyNameLength == 1 ? 1 : 0);
+            int chiKaku = groupStrokes[g] + (groupSingle[g] ? 1 : 0);
+            int jinKaku = familyNameLast + groupFirstStrokes[g];
+            int soKaku = familyNameStrokes + groupStrokes[g];
+            int score = score(jinKaku, chiKaku, tenKaku + chiKaku - jinKaku, soKaku);
+            if (score >= minimumScore) {
+                ranking[ranked++] = (long) (MAX_SCORE - score) << 32 | g;
+            }
+        }
+        Arrays.sort(ranking, 0, ranked);
+
+        List<NameCandidate> candidates = new ArrayList<>(Math.min(limit, 64));
+        for (int r = 0; r < ranked && candidates.size() < limit; r++) {
+            int g = (int) ranking[r];
+            int score = MAX_SCORE - (int) (ranking[r] >>> 32);
+            NameFortune fortune = null;
+            for (int i = groupStart[g]; i < groupStart[g + 1] && candidates.size() < limit; i++) {
+                if ((genders[i] & gender) == 0
+                        || (length > 0 && lengths[i] != length)
+                        || (kanaOnly && !this.kanaOnly[i])
+                        || !containsAll(names[i], requiredCharacters)) {
+                    continue;
+                }
+                if (fortune == null) {
+                    // One shared result per group: all its names have the same five numbers
+                    fortune = NameFortuneEngine.fromStrokes(familyNameStrokes, familyNameLength, familyNameLast,
+                        groupStrokes[g], groupSingle[g] ? 1 : 2, groupFirstStrokes[g]);
+                }
+                candidates.add(new NameCandidate(names[i], fortune, score));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Score of a name's five numbers, 0..{@link #MAX_SCORE}: 3 points for 大吉 down to 0 for 凶,
+     * counting 人格 and 総格 twice. 天格 is left out because the family name fixes it.
+     */
+    public static int score(NameFortune fortune) {
+        return score(fortune.getJinKaku(), fortune.getChiKaku(), fortune.getGaiKaku(), fortune.getSoKaku());
+    }
+
+    private static int score(int jinKaku, int chiKaku, int gaiKaku, int soKaku) {
+        return 2 * points(jinKaku) + 2 * points(soKaku) + points(chiKaku) + points(gaiKaku);
+    }
+
+    private static int points(int number) {
+        return Rating.POOR.ordinal() - NameFortuneEngine.rating(number).ordinal();
+    }
+
+    private static boolean containsAll(String name, String characters) {
+        for (int i = 0; i < characters.length(); ) {
+            int codePoint = characters.codePointAt(i);
+            if (name.indexOf(codePoint) < 0) {
+                return false;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    private static boolean isKana(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            // Letters only: not the combining or spacing sound marks, ゠ or ・ (ー is a letter)
+            if (c < 0x3041 || c > 0x30FF || !Character.isLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
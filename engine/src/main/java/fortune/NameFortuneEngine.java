@@ -0,0 +1,137 @@
+package fortune;
+
+import models.NameFortune;
+import models.Rating;
+import models.StrokeFortune;
+
+import java.text.Normalizer;
+
+/**
+ * Name fortune (姓名判断) calculation based on stroke counts.
+ *
+ * Stateless and thread-safe; one instance can be shared by all callers.
+ */
+public final class NameFortuneEngine {
+
+    /** Spirit number (霊数) added for a one-character family or given name. */
+    private static final int SPIRIT_NUMBER = 1;
+
+    private static final Rating E = Rating.EXCELLENT;
+    private static final Rating G = Rating.GOOD;
+    private static final Rating A = Rating.AVERAGE;
+    private static final Rating P = Rating.POOR;
+
+    /**
+     * 吉凶 of the 81 numbers: 大吉, 吉, 半吉 and 凶 map to the four ratings. Index 0 is unused.
+     */
+    private static final Rating[] RATINGS = {
+        A,
+        E, P, E, P, E, G, G, G, P, P,  //  1-10
+        E, P, E, P, E, E, G, G, P, P,  // 11-20
+        E, P, E, E, G, P, A, P, G, A,  // 21-30
+        E, E, E, P, G, P, G, G, G, A,  // 31-40
+        E, P, P, P, E, P, E, E, P, P,  // 41-50
+        A, E, P, P, A, P, E, A, P, P,  // 51-60
+        E, P, E, P, E, P, E, E, P, P,  // 61-70
+        A, P, A, P, A, P, A, P, P, P,  // 71-80
+        E                              // 81
+    };
+
+    private final StrokeDictionary strokeDictionary;
+
+    public NameFortuneEngine(StrokeDictionary strokeDictionary) {
+        this.strokeDictionary = strokeDictionary;
+    }
+
+    /**
+     * NFKC-normalize a name so that full-width/half-width and
+     * compatibility variants are scored the same.
+     */
+    public static String normalize(String name) {
+        return name != null ? Normalizer.normalize(name, Normalizer.Form.NFKC) : "";
+    }
+
+    /**
+     * Generate the name fortune from the five fortune numbers (五格).
+     *
+     * 天格 and 地格 are the stroke totals of the family and given name,
+     * 人格 joins the last character of the family name with the first of
+     * the given name, 総格 is the total and 外格 is the rest. A one-character
+     * family or given name adds a spirit number (霊数) of 1 to 天格 or 地格
+     * (and so to 外格), but not to 総格.
+     * Names are expected to be normalized with {@link #normalize(String)}.
+     * The result does not depend on gender.
+     */
+    public NameFortune generateNameFortune(String familyName, String givenName) {
+        // One pass over each name by code point: total, character count and the strokes at the join
+        int familyNameStrokes = 0;
+        int familyNameLength = 0;
+        int familyNameLast = 0;
+        for (int i = 0, length = familyName.length(); i < length; ) {
+            int codePoint = familyName.codePointAt(i);
+            familyNameLast = strokeDictionary.strokes(codePoint);
+            familyNameStrokes += familyNameLast;
+            familyNameLength++;
+            i += Character.charCount(codePoint);
+        }
+        int givenNameStrokes = 0;
+        int givenNameLength = 0;
+        int givenNameFirst = 0;
+        for (int i = 0, length = givenName.length(); i < length; ) {
+            int codePoint = givenName.codePointAt(i);
+            int strokes = strokeDictionary.strokes(codePoint);
+            if (givenNameLength == 0) {
+                givenNameFirst = strokes;
+            }
+            givenNameStrokes += strokes;
+            givenNameLength++;
+            i += Character.charCount(codePoint);
+        }
+
+        return fromStrokes(familyNameStrokes, familyNameLength, familyNameLast,
+            givenNameStrokes, givenNameLength, givenNameFirst);
+    }
+
+    /**
+     * The five numbers of a name, given each part's stroke total and length in
+     * characters and the strokes of the two characters where the parts meet.
+     */
+    static NameFortune fromStrokes(int familyNameStrokes, int familyNameLength, int familyNameLast,
+                                   int givenNameStrokes, int givenNameLength, int givenNameFirst) {
+        int tenKaku = familyNameStrokes + (familyNameLength == 1 ? SPIRIT_NUMBER : 0);
+        int chiKaku = givenNameStrokes + (givenNameLength == 1 ? SPIRIT_NUMBER : 0);
+        int jinKaku = familyNameLast + givenNameFirst;
+        int soKaku = familyNameStrokes + givenNameStrokes;
+        int gaiKaku = tenKaku + chiKaku - jinKaku;
+
+        return new NameFortune(
+            familyNameStrokes, givenNameStrokes, tenKaku, jinKaku, chiKaku, gaiKaku, soKaku,
+            StrokeFortune.of(rating(soKaku))
+        );
+    }
+
+    /**
+     * Calculate stroke count for Japanese characters using the stroke dictionary.
+     */
+    public int calculateStrokes(String text) {
+        return strokeDictionary.totalStrokes(text);
+    }
+
+    /**
+     * Generate fortune interpretations from the 吉凶 of a fortune number.
+     */
+    public StrokeFortune generateStrokeFortune(int totalStrokes) {
+        // Apply same rating to all categories for simplicity
+        return StrokeFortune.of(rating(totalStrokes));
+    }
+
+    /**
+     * 吉凶 of a fortune number in the 81-number system; numbers above 81 start over at 2.
+     */
+    public static Rating rating(int number) {
+        if (number <= 0) {
+            return Rating.AVERAGE;
+        }
+        return RATINGS[number > 81 ? (number - 1) % 80 + 1 : number];
+    }
+}
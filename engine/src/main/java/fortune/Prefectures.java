@@ -0,0 +1,60 @@
+package fortune;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Longitude of each prefectural capital, for the local mean time
+ * correction of the hour pillar.
+ */
+public final class Prefectures {
+
+    /** Longitude of the Japan Standard Time meridian (明石). */
+    public static final double STANDARD_MERIDIAN = 135.0;
+
+    private static final Map<String, Double> LONGITUDES = new HashMap<>();
+
+    static {
+        String[] names = {
+            "北海道", "青森県", "岩手県", "宮城県", "秋田県", "山形県", "福島県",
+            "茨城県", "栃木県", "群馬県", "埼玉県", "千葉県", "東京都", "神奈川県",
+            "新潟県", "富山県", "石川県", "福井県", "山梨県", "長野県", "岐阜県",
+            "静岡県", "愛知県", "三重県", "滋賀県", "京都府", "大阪府", "兵庫県",
+            "奈良県", "和歌山県", "鳥取県", "島根県", "岡山県", "広島県", "山口県",
+            "徳島県", "香川県", "愛媛県", "高知県", "福岡県", "佐賀県", "長崎県",
+            "熊本県", "大分県", "宮崎県", "鹿児島県", "沖縄県"
+        };
+        double[] longitudes = {
+            141.35, 140.74, 141.15, 140.87, 140.10, 140.36, 140.47,
+            140.45, 139.88, 139.06, 139.65, 140.12, 139.69, 139.64,
+            139.02, 137.21, 136.63, 136.22, 138.57, 138.18, 136.72,
+            138.38, 136.91, 136.51, 135.87, 135.76, 135.52, 135.18,
+            135.83, 135.17, 134.24, 133.05, 133.93, 132.46, 131.47,
+            134.56, 134.04, 132.77, 133.53, 130.42, 130.30, 129.87,
+            130.74, 131.61, 131.42, 130.56, 127.68
+        };
+        for (int i = 0; i < names.length; i++) {
+            LONGITUDES.put(names[i], longitudes[i]);
+        }
+    }
+
+    private Prefectures() {
+    }
+
+    /**
+     * Longitude of the prefectural capital, or the standard meridian for unknown names.
+     */
+    public static double longitude(String prefecture) {
+        if (prefecture == null) {
+            return STANDARD_MERIDIAN;
+        }
+        return LONGITUDES.getOrDefault(prefecture, STANDARD_MERIDIAN);
+    }
+
+    /**
+     * Local mean time minus Japan Standard Time, in whole minutes (4 minutes per degree).
+     */
+    public static int localMeanTimeOffsetMinutes(String prefecture) {
+        return (int) Math.round((longitude(prefecture) - STANDARD_MERIDIAN) * 4);
+    }
+}
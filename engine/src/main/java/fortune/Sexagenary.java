@@ -0,0 +1,71 @@
+package fortune;
+
+import java.time.LocalDate;
+
+/**
+ * Arithmetic on the sexagenary cycle (六十干支).
+ *
+ * A pillar is an index 0..59 where 0 is 甲子; its heavenly stem is
+ * {@code index % 10} and its earthly branch is {@code index % 12}.
+ */
+public final class Sexagenary {
+
+    private Sexagenary() {
+    }
+
+    public static int stem(int pillar) {
+        return pillar % 10;
+    }
+
+    public static int branch(int pillar) {
+        return pillar % 12;
+    }
+
+    /**
+     * Pillar with the given stem and branch; both must have the same parity.
+     */
+    public static int pillar(int stem, int branch) {
+        return Math.floorMod(6 * stem - 5 * branch, 60);
+    }
+
+    /**
+     * Day pillar of a calendar date (2000-01-01 is 戊午).
+     */
+    public static int dayPillar(LocalDate date) {
+        return dayPillar(date.toEpochDay());
+    }
+
+    public static int dayPillar(long epochDay) {
+        return (int) Math.floorMod(epochDay + 17, 60L);
+    }
+
+    /**
+     * Year pillar of a solar year (1984 is 甲子).
+     */
+    public static int yearPillar(int solarYear) {
+        return Math.floorMod(solarYear - 4, 60);
+    }
+
+    /**
+     * Month pillar of a solar month as returned by {@link SolarTerms#solarMonth}.
+     * The 寅 month of a 甲 or 己 year is 丙寅 (五虎遁).
+     */
+    public static int monthPillar(int solarMonth) {
+        return Math.floorMod(solarMonth + 14, 60);
+    }
+
+    /**
+     * Hour pillar for an earthly branch hour of the given day pillar.
+     * The 子 hour of a 甲 or 己 day is 甲子 (五鼠遁).
+     */
+    public static int hourPillar(int dayPillar, int hourBranch) {
+        return pillar((stem(dayPillar) % 5 * 2 + hourBranch) % 10, hourBranch);
+    }
+
+    /**
+     * Earthly branch of a two-hour period; 子 runs from 23:00 to 01:00.
+     */
+    public static int hourBranch(int hour) {
+        return (hour + 1) / 2 % 12;
+    }
+}
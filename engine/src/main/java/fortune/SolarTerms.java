@@ -0,0 +1,139 @@
+package fortune;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Precomputed table of the 24 solar terms (二十四節気), used to find the
+ * solar year and month that a four pillars chart is based on.
+ *
+ * The binary format (big-endian) is:
+ * <pre>
+ *   magic      4 bytes  "SOLT"
+ *   version    u16      1
+ *   firstYear  u16
+ *   yearCount  u16
+ *   termCount  u16      24
+ *   terms      yearCount x termCount x i32 minutes since 1970-01-01T00:00Z
+ * </pre>
+ * Terms of a year start with 小寒 (solar longitude 285 degrees) and
+ * end with 冬至 (270 degrees). The even-numbered terms are the
+ * sectional terms (節) that start a solar month, and 立春 (term 2)
+ * starts the solar year. The table is about 20 KB and is loaded once
+ * from the classpath into an int array.
+ *
+ * Tables are produced by {@link SolarTermTableGenerator}.
+ */
+public final class SolarTerms {
+
+    static final int MAGIC = 0x534F4C54; // "SOLT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int TERMS = 24;
+    static final double FIRST_TERM_LONGITUDE = 285.0;
+
+    /** Index of 立春, the first term of the solar year. */
+    public static final int RISSHUN = 2;
+
+    private static final String RESOURCE = "/fortune/solar-terms.bin";
+
+    private final int firstYear;
+    private final int[] minutes;
+
+    private SolarTerms(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a solar term table");
+        }
+        int version = data.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported solar term table version: " + version);
+        }
+        int years = data.getShort(8) & 0xFFFF;
+        if ((data.getShort(10) & 0xFFFF) != TERMS || data.limit() < HEADER_SIZE + years * TERMS * 4) {
+            throw new IllegalArgumentException("Truncated solar term table");
+        }
+        this.firstYear = data.getShort(6) & 0xFFFF;
+        this.minutes = new int[years * TERMS];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = data.getInt(HEADER_SIZE + i * 4);
+        }
+    }
+
+    /**
+     * Returns the table bundled with the engine.
+     */
+    public static SolarTerms bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * Wraps an already loaded table image.
+     */
+    public static SolarTerms wrap(ByteBuffer buffer) {
+        return new SolarTerms(buffer);
+    }
+
+    /** First Gregorian year in the table. */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /** Last Gregorian year in the table. */
+    public int getLastYear() {
+        return firstYear + minutes.length / TERMS - 1;
+    }
+
+    /**
+     * Instant of a term in minutes since the epoch; term 0 is 小寒 of the given year.
+     */
+    public long termMinute(int year, int term) {
+        if (year < firstYear || year > getLastYear() || term < 0 || term >= TERMS) {
+            throw new IllegalArgumentException("No solar term " + term + " for " + year);
+        }
+        return minutes[(year - firstYear) * TERMS + term];
+    }
+
+    /**
+     * Solar month containing the given instant, as {@code 12 * solarYear + month}
+     * where month 0 is 寅 (starting at 立春) and month 11 is 丑 (starting at 小寒).
+     *
+     * @param epochMinute minutes since 1970-01-01T00:00Z
+     * @param year the Gregorian year of the instant in any time zone near UTC
+     */
+    public int solarMonth(long epochMinute, int year) {
+        // Move to the neighbouring year when the local date and UTC disagree around New Year
+        if (year > firstYear && epochMinute < termMinute(year, 0) - 20 * 1440) {
+            year--;
+        } else if (year < getLastYear() && epochMinute >= termMinute(year + 1, 0)) {
+            year++;
+        }
+        int base = (year - firstYear) * TERMS;
+        for (int term = TERMS - 2; term >= 0; term -= 2) {
+            if (epochMinute >= minutes[base + term]) {
+                // 小寒 starts the last month (丑) of the previous solar year
+                return term == 0 ? 12 * year - 1 : 12 * year + term / 2 - 1;
+            }
+        }
+        // Before 小寒: still in 子, the month that started at 大雪 of the previous year
+        return 12 * year - 2;
+    }
+
+    private static final class Bundled {
+        static final SolarTerms INSTANCE = load();
+
+        private static SolarTerms load() {
+            try (InputStream in = SolarTerms.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing resource " + RESOURCE);
+                }
+                return wrap(ByteBuffer.wrap(in.readAllBytes()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package fortune;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a compiled stroke count database.
+ *
+ * The binary format (big-endian) is:
+ * <pre>
+ *   magic         4 bytes  "STRK"
+ *   version       u16      1
+ *   segmentCount  u16
+ *   segments      segmentCount x (i32 firstCodePoint, i32 length, i32 dataOffset)
+ *   data          u8 stroke count per code point, 0 when unknown
+ * </pre>
+ * Each segment is a dense run of code points, so a lookup is a binary
+ * search over a handful of segments followed by one absolute buffer
+ * read. The data section stays in the (usually memory-mapped) buffer
+ * and costs no heap.
+ *
+ * Databases are produced by {@link StrokeDatabaseCompiler}.
+ */
+public final class StrokeDatabase {
+
+    static final int MAGIC = 0x5354524B; // "STRK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int SEGMENT_SIZE = 12;
+
+    private final ByteBuffer data;
+    private final int[] segmentStarts;
+    private final int[] segmentEnds;
+    private final int[] segmentOffsets;
+    private final int size;
+
+    private StrokeDatabase(ByteBuffer buffer) {
+        ByteBuffer header = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a stroke database");
+        }
+        int version = header.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported stroke database version: " + version);
+        }
+        int segmentCount = header.getShort(6) & 0xFFFF;
+        int dataStart = HEADER_SIZE + segmentCount * SEGMENT_SIZE;
+
+        segmentStarts = new int[segmentCount];
+        segmentEnds = new int[segmentCount];
+        segmentOffsets = new int[segmentCount];
+        int entries = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            int position = HEADER_SIZE + i * SEGMENT_SIZE;
+            int length = header.getInt(position + 4);
+            segmentStarts[i] = header.getInt(position);
+            segmentEnds[i] = segmentStarts[i] + length;
+            segmentOffsets[i] = dataStart + header.getInt(position + 8);
+            if (segmentOffsets[i] + length > header.limit()) {
+                throw new IllegalArgumentException("Truncated stroke database");
+            }
+            entries += length;
+        }
+        this.data = header;
+        this.size = entries;
+    }
+
+    /**
+     * Memory-maps a compiled database file.
+     */
+    public static StrokeDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Wraps an already loaded database image.
+     */
+    public static StrokeDatabase wrap(ByteBuffer buffer) {
+        return new StrokeDatabase(buffer);
+    }
+
+    /**
+     * Returns the stroke count of a code point, or 0 if it is not in the database.
+     */
+    public int strokes(int codePoint) {
+        int low = 0;
+        int high = segmentStarts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < segmentStarts[mid]) {
+                high = mid - 1;
+            } else if (codePoint >= segmentEnds[mid]) {
+                low = mid + 1;
+            } else {
+                return data.get(segmentOffsets[mid] + codePoint - segmentStarts[mid]) & 0xFF;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Number of code point slots covered by the database, including gaps inside segments.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,143 @@
+package fortune;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline tool that compiles a text stroke source into the binary
+ * format read by {@link StrokeDatabase}.
+ *
+ * The source uses the Unihan database layout, so Unihan_IRGSources.txt
+ * from the Unicode Character Database can be used as is:
+ * <pre>
+ *   # comment
+ *   U+4E00	kTotalStrokes	1
+ *   U+4E0D	kTotalStrokes	4
+ * </pre>
+ * Lines for other Unihan fields are ignored. When a character has two
+ * counts the first one is used.
+ *
+ * Usage: sbt "runMain fortune.StrokeDatabaseCompiler data/strokes/kTotalStrokes.txt conf/strokes.bin"
+ */
+public final class StrokeDatabaseCompiler {
+
+    private static final String FIELD = "kTotalStrokes";
+
+    /** Runs of unknown code points shorter than this are stored inline instead of starting a new segment. */
+    private static final int MAX_GAP = 256;
+
+    private StrokeDatabaseCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: StrokeDatabaseCompiler <source.txt> <target.bin>");
+            System.exit(1);
+        }
+        Map<Integer, Integer> strokes = readSource(Paths.get(args[0]));
+        write(strokes, Paths.get(args[1]));
+        System.out.println("Compiled " + strokes.size() + " entries into " + args[1]);
+    }
+
+    /**
+     * Reads stroke counts from a Unihan-style text source, keyed by code point.
+     */
+    public static TreeMap<Integer, Integer> readSource(Path source) throws IOException {
+        TreeMap<Integer, Integer> strokes = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length < 3 || !FIELD.equals(fields[1])) {
+                    continue;
+                }
+                if (!fields[0].startsWith("U+")) {
+                    throw new IOException(source + ":" + lineNumber + ": invalid code point " + fields[0]);
+                }
+                try {
+                    int codePoint = Integer.parseInt(fields[0].substring(2), 16);
+                    int count = Integer.parseInt(fields[2].trim().split(" ")[0]);
+                    if (count < 1 || count > 255) {
+                        throw new IOException(source + ":" + lineNumber + ": stroke count out of range: " + count);
+                    }
+                    strokes.put(codePoint, count);
+                } catch (NumberFormatException e) {
+                    throw new IOException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return strokes;
+    }
+
+    /**
+     * Writes stroke counts in the binary database format.
+     */
+    public static void write(Map<Integer, Integer> strokes, Path target) throws IOException {
+        TreeMap<Integer, Integer> sorted = new TreeMap<>(strokes);
+
+        // Group code points into dense segments
+        List<int[]> segments = new ArrayList<>();
+        int[] current = null;
+        for (int codePoint : sorted.keySet()) {
+            if (current != null && codePoint - (current[0] + current[1]) < MAX_GAP) {
+                current[1] = codePoint - current[0] + 1;
+            } else {
+                current = new int[] {codePoint, 1, 0};
+                segments.add(current);
+            }
+        }
+        if (segments.size() > 0xFFFF) {
+            throw new IOException("Too many segments: " + segments.size());
+        }
+
+        int dataSize = 0;
+        for (int[] segment : segments) {
+            segment[2] = dataSize;
+            dataSize += segment[1];
+        }
+
+        int headerSize = StrokeDatabase.HEADER_SIZE + segments.size() * StrokeDatabase.SEGMENT_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + dataSize).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(StrokeDatabase.MAGIC);
+        buffer.putShort((short) StrokeDatabase.VERSION);
+        buffer.putShort((short) segments.size());
+        for (int[] segment : segments) {
+            buffer.putInt(segment[0]);
+            buffer.putInt(segment[1]);
+            buffer.putInt(segment[2]);
+        }
+        int segmentIndex = 0;
+        for (Map.Entry<Integer, Integer> entry : sorted.entrySet()) {
+            int codePoint = entry.getKey();
+            int[] segment = segments.get(segmentIndex);
+            if (codePoint >= segment[0] + segment[1]) {
+                segment = segments.get(++segmentIndex);
+            }
+            buffer.put(headerSize + segment[2] + codePoint - segment[0], entry.getValue().byteValue());
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream out = Files.newOutputStream(target)) {
+            out.write(buffer.array());
+        }
+    }
+}
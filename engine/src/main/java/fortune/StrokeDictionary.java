@@ -0,0 +1,190 @@
+package fortune;
+
+/**
+ * Immutable stroke count dictionary for Japanese characters.
+ *
+ * Stroke counts come from an optional compiled {@link StrokeDatabase}
+ * first, then from the built-in table. All built-in stroke counts,
+ * including the estimates used for unmapped characters, are
+ * precomputed into a dense byte array indexed by code point over the
+ * kana and CJK ranges, so a lookup never allocates.
+ */
+public final class StrokeDictionary {
+
+    /** First code point covered by the table (start of hiragana). */
+    private static final int TABLE_START = 0x3040;
+
+    /** Code point just past the end of the table (end of CJK Unified Ideographs). */
+    private static final int TABLE_END = 0xA000;
+
+    /** Stroke count for characters outside the table. */
+    private static final int DEFAULT_STROKES = 1;
+
+    private static final byte[] TABLE = createTable();
+
+    private static final StrokeDictionary BUILTIN = new StrokeDictionary(null);
+
+    private final StrokeDatabase database;
+
+    private StrokeDictionary(StrokeDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Returns the shared dictionary built from the hand-coded stroke table.
+     */
+    public static StrokeDictionary builtin() {
+        return BUILTIN;
+    }
+
+    /**
+     * Returns a dictionary that looks up the given database before the built-in table.
+     */
+    public static StrokeDictionary withDatabase(StrokeDatabase database) {
+        return new StrokeDictionary(database);
+    }
+
+    /**
+     * Returns the stroke count of a single character.
+     */
+    public int strokes(int codePoint) {
+        if (database != null) {
+            int strokes = database.strokes(codePoint);
+            if (strokes > 0) {
+                return strokes;
+            }
+        }
+        if (codePoint < TABLE_START || codePoint >= TABLE_END) {
+            return DEFAULT_STROKES;
+        }
+        return TABLE[codePoint - TABLE_START];
+    }
+
+    /**
+     * Returns the total stroke count of a text, counting each code point
+     * (including surrogate pairs) as one character.
+     */
+    public int totalStrokes(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int totalStrokes = 0;
+        for (int i = 0, length = text.length(); i < length; ) {
+            int codePoint = Character.codePointAt(text, i);
+            totalStrokes += strokes(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return totalStrokes;
+    }
+
+    /**
+     * Build the dense stroke table, filling unmapped characters with estimates first.
+     */
+    private static byte[] createTable() {
+        byte[] table = new byte[TABLE_END - TABLE_START];
+        for (int c = TABLE_START; c < TABLE_END; c++) {
+            table[c - TABLE_START] = (byte) estimateStrokes(c);
+        }
+
+        // Common family name kanji
+        put(table, '田', 5); put(table, '中', 4); put(table, '佐', 7); put(table, '藤', 18);
+        put(table, '山', 3); put(table, '川', 3); put(table, '木', 4); put(table, '村', 7);
+        put(table, '高', 10); put(table, '小', 3); put(table, '松', 8); put(table, '井', 4);
+        put(table, '石', 5); put(table, '橋', 16); put(table, '林', 8); put(table, '森', 12);
+        put(table, '清', 11); put(table, '水', 4); put(table, '金', 8); put(table, '銀', 14);
+        put(table, '鈴', 13); put(table, '伊', 6); put(table, '加', 5); put(table, '近', 7);
+        put(table, '大', 3); put(table, '西', 6); put(table, '東', 8); put(table, '南', 9);
+        put(table, '北', 5); put(table, '上', 3); put(table, '下', 3); put(table, '前', 9);
+        put(table, '後', 9); put(table, '原', 10); put(table, '野', 11); put(table, '島', 10);
+        put(table, '竹', 6); put(table, '花', 7); put(table, '草', 9);
+
+        // Common given name kanji
+        put(table, '太', 4); put(table, '郎', 9); put(table, '一', 1); put(table, '二', 2);
+        put(table, '三', 3); put(table, '四', 5); put(table, '五', 4); put(table, '六', 4);
+        put(table, '七', 2); put(table, '八', 2); put(table, '九', 2); put(table, '十', 2);
+        put(table, '美', 9); put(table, '子', 3); put(table, '香', 9);
+        put(table, '愛', 13); put(table, '恵', 10); put(table, '智', 12); put(table, '理', 11);
+        put(table, '彩', 11); put(table, '綾', 14); put(table, '真', 10); put(table, '純', 10);
+        put(table, '明', 8); put(table, '光', 6); put(table, '正', 5); put(table, '和', 8);
+        put(table, '雄', 12); put(table, '男', 7); put(table, '夫', 4); put(table, '人', 2);
+        put(table, '介', 4); put(table, '助', 7); put(table, '治', 8); put(table, '次', 6);
+        put(table, '良', 7); put(table, '優', 17); put(table, '健', 11); put(table, '強', 11);
+
+        // Hiragana
+        put(table, 'あ', 3); put(table, 'い', 2); put(table, 'う', 2); put(table, 'え', 2); put(table, 'お', 3);
+        put(table, 'か', 3); put(table, 'き', 3); put(table, 'く', 2); put(table, 'け', 3); put(table, 'こ', 2);
+        put(table, 'さ', 3); put(table, 'し', 3); put(table, 'す', 2); put(table, 'せ', 3); put(table, 'そ', 2);
+        put(table, 'た', 4); put(table, 'ち', 3); put(table, 'つ', 3); put(table, 'て', 3); put(table, 'と', 2);
+        put(table, 'な', 4); put(table, 'に', 3); put(table, 'ぬ', 2); put(table, 'ね', 4); put(table, 'の', 1);
+        put(table, 'は', 3); put(table, 'ひ', 2); put(table, 'ふ', 4); put(table, 'へ', 1); put(table, 'ほ', 4);
+        put(table, 'ま', 3); put(table, 'み', 3); put(table, 'む', 3); put(table, 'め', 2); put(table, 'も', 3);
+        put(table, 'や', 3); put(table, 'ゆ', 2); put(table, 'よ', 3);
+        put(table, 'ら', 2); put(table, 'り', 2); put(table, 'る', 2); put(table, 'れ', 2); put(table, 'ろ', 3);
+        put(table, 'わ', 2); put(table, 'ゐ', 3); put(table, 'ゑ', 3); put(table, 'を', 3); put(table, 'ん', 1);
+
+        // Katakana (basic mapping similar to hiragana)
+        put(table, 'ア', 2); put(table, 'イ', 2); put(table, 'ウ', 3); put(table, 'エ', 3); put(table, 'オ', 3);
+        put(table, 'カ', 3); put(table, 'キ', 3); put(table, 'ク', 2); put(table, 'ケ', 3); put(table, 'コ', 2);
+        put(table, 'サ', 3); put(table, 'シ', 3); put(table, 'ス', 2); put(table, 'セ', 3); put(table, 'ソ', 2);
+        put(table, 'タ', 3); put(table, 'チ', 3); put(table, 'ツ', 3); put(table, 'テ', 3); put(table, 'ト', 2);
+        put(table, 'ナ', 2); put(table, 'ニ', 2); put(table, 'ヌ', 2); put(table, 'ネ', 4); put(table, 'ノ', 1);
+        put(table, 'ハ', 3); put(table, 'ヒ', 2); put(table, 'フ', 4); put(table, 'ヘ', 1); put(table, 'ホ', 4);
+        put(table, 'マ', 2); put(table, 'ミ', 3); put(table, 'ム', 2); put(table, 'メ', 2); put(table, 'モ', 3);
+        put(table, 'ヤ', 3); put(table, 'ユ', 2); put(table, 'ヨ', 3);
+        put(table, 'ラ', 2); put(table, 'リ', 2); put(table, 'ル', 2); put(table, 'レ', 2); put(table, 'ロ', 3);
+        put(table, 'ワ', 2); put(table, 'ヰ', 3); put(table, 'ヱ', 3); put(table, 'ヲ', 3); put(table, 'ン', 1);
+
+        return table;
+    }
+
+    private static void put(byte[] table, char c, int strokes) {
+        table[c - TABLE_START] = (byte) strokes;
+    }
+
+    /**
+     * Default stroke count for unmapped characters (based on complexity).
+     */
+    private static int estimateStrokes(int c) {
+        if (isKanji(c)) {
+            return estimateKanjiStrokes(c);
+        } else if (isHiragana(c)) {
+            return 3; // Average for hiragana
+        } else if (isKatakana(c)) {
+            return 3; // Average for katakana
+        } else {
+            return DEFAULT_STROKES;
+        }
+    }
+
+    /**
+     * Check if character is kanji.
+     */
+    private static boolean isKanji(int c) {
+        return (c >= 0x4E00 && c <= 0x9FAF) || (c >= 0x3400 && c <= 0x4DBF);
+    }
+
+    /**
+     * Check if character is hiragana.
+     */
+    private static boolean isHiragana(int c) {
+        return c >= 0x3040 && c <= 0x309F;
+    }
+
+    /**
+     * Check if character is katakana.
+     */
+    private static boolean isKatakana(int c) {
+        return c >= 0x30A0 && c <= 0x30FF;
+    }
+
+    /**
+     * Estimate stroke count for unmapped kanji characters.
+     */
+    private static int estimateKanjiStrokes(int codePoint) {
+        // Very simplified estimation based on Unicode code point
+        if (codePoint < 0x5000) return 4;  // Simple kanji
+        else if (codePoint < 0x7000) return 8;  // Medium complexity
+        else if (codePoint < 0x8000) return 12; // Complex kanji
+        else return 16; // Very complex kanji
+    }
+}
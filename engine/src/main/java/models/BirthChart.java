@@ -0,0 +1,57 @@
+package models;
+
+/**
+ * Four pillars (四柱) of a birth chart, each an index 0..59 into the
+ * sexagenary cycle where 0 is 甲子.
+ *
+ * The hour pillar is -1 when the birth time is unknown.
+ */
+public final class BirthChart {
+
+    private static final String STEMS = "甲乙丙丁戊己庚辛壬癸";
+    private static final String BRANCHES = "子丑寅卯辰巳午未申酉戌亥";
+
+    private final int yearPillar;
+    private final int monthPillar;
+    private final int dayPillar;
+    private final int hourPillar;
+
+    public BirthChart(int yearPillar, int monthPillar, int dayPillar, int hourPillar) {
+        this.yearPillar = yearPillar;
+        this.monthPillar = monthPillar;
+        this.dayPillar = dayPillar;
+        this.hourPillar = hourPillar;
+    }
+
+    /**
+     * Name of a pillar, e.g. "甲子" for 0.
+     */
+    public static String pillarName(int pillar) {
+        return new String(new char[] {STEMS.charAt(pillar % 10), BRANCHES.charAt(pillar % 12)});
+    }
+
+    public int getYearPillar() { return yearPillar; }
+
+    public int getMonthPillar() { return monthPillar; }
+
+    public int getDayPillar() { return dayPillar; }
+
+    public int getHourPillar() { return hourPillar; }
+
+    public boolean hasHourPillar() { return hourPillar >= 0; }
+
+    public String getYearPillarName() { return pillarName(yearPillar); }
+
+    public String getMonthPillarName() { return pillarName(monthPillar); }
+
+    public String getDayPillarName() { return pillarName(dayPillar); }
+
+    /** Name of the hour pillar, or an empty string when the birth time is unknown. */
+    public String getHourPillarName() { return hasHourPillar() ? pillarName(hourPillar) : ""; }
+
+    @Override
+    public String toString() {
+        return getYearPillarName() + " " + getMonthPillarName() + " " + getDayPillarName()
+            + (hasHourPillar() ? " " + getHourPillarName() : "");
+    }
+}
@@ -0,0 +1,25 @@
+package models;
+
+/**
+ * Compatibility (相性) score of two people, 0..100, with its parts.
+ */
+public final class Compatibility {
+
+    private final int score;
+    private final int birthScore;
+    private final int nameScore;
+
+    public Compatibility(int score, int birthScore, int nameScore) {
+        this.score = score;
+        this.birthScore = birthScore;
+        this.nameScore = nameScore;
+    }
+
+    public int getScore() { return score; }
+
+    /** Part from the two day pillars (day masters and branches), 0..60. */
+    public int getBirthScore() { return birthScore; }
+
+    /** Part from the two names (総格 and 人格), 0..40. */
+    public int getNameScore() { return nameScore; }
+}
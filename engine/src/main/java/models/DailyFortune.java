@@ -0,0 +1,63 @@
+package models;
+
+/**
+ * Fortune for a single day of the four pillars result.
+ *
+ * There is exactly one immutable instance per rating, shared by all requests.
+ */
+public final class DailyFortune {
+
+    private static final DailyFortune[] BY_RATING = {
+        new DailyFortune(Rating.EXCELLENT,
+            "運気が最高潮に達しています。積極的な行動で大きな成果が期待できるでしょう。",
+            "恋愛面で嬉しい出来事が起こりそうです。告白や重要な話し合いに良い日です。",
+            "仕事では大きなチャンスが訪れるかもしれません。自信を持って取り組みましょう。",
+            "体調も良好で、エネルギーに満ちあふれています。"),
+        new DailyFortune(Rating.GOOD,
+            "安定した運気で、計画していたことを進めるのに適しています。",
+            "穏やかな恋愛運です。相手との関係を深めるのに良い日でしょう。",
+            "着実に成果を上げることができそうです。丁寧な作業を心がけましょう。",
+            "健康状態は良好です。適度な運動を取り入れるとさらに良いでしょう。"),
+        new DailyFortune(Rating.AVERAGE,
+            "普通の運気です。無理をせず、現状維持を心がけると良いでしょう。",
+            "恋愛面では特に大きな変化はありませんが、小さな心遣いが大切です。",
+            "地道な努力が後々実を結ぶでしょう。焦らず着実に進めてください。",
+            "体調管理に注意が必要です。十分な休息を取りましょう。"),
+        new DailyFortune(Rating.POOR,
+            "少し運気が下がり気味です。新しいことは避け、慎重に行動しましょう。",
+            "恋愛面では誤解が生じやすい日です。コミュニケーションを大切にしてください。",
+            "仕事では思わぬトラブルが発生するかもしれません。冷静な対応を心がけましょう。",
+            "疲れが溜まりやすい日です。無理をせず、早めの休息を取りましょう。")
+    };
+
+    private final Rating rating;
+    private final String overall;
+    private final String love;
+    private final String work;
+    private final String health;
+
+    private DailyFortune(Rating rating, String overall, String love, String work, String health) {
+        this.rating = rating;
+        this.overall = overall;
+        this.love = love;
+        this.work = work;
+        this.health = health;
+    }
+
+    /**
+     * Returns the shared daily fortune for a rating.
+     */
+    public static DailyFortune of(Rating rating) {
+        return BY_RATING[rating.ordinal()];
+    }
+
+    public Rating getRating() { return rating; }
+
+    public String getOverall() { return overall; }
+
+    public String getLove() { return love; }
+
+    public String getWork() { return work; }
+
+    public String getHealth() { return health; }
+}
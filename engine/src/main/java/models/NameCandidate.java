@@ -0,0 +1,26 @@
+package models;
+
+/**
+ * A given name found by the reverse name search, with the fortune of the full name.
+ *
+ * Candidates with the same stroke signature share one {@link NameFortune}.
+ */
+public final class NameCandidate {
+
+    private final String givenName;
+    private final NameFortune fortune;
+    private final int score;
+
+    public NameCandidate(String givenName, NameFortune fortune, int score) {
+        this.givenName = givenName;
+        this.fortune = fortune;
+        this.score = score;
+    }
+
+    public String getGivenName() { return givenName; }
+
+    public NameFortune getFortune() { return fortune; }
+
+    /** Score of the five numbers; higher is better. */
+    public int getScore() { return score; }
+}
@@ -0,0 +1,50 @@
+package models;
+
+/**
+ * Name fortune result: the stroke counts of a name and their interpretation.
+ */
+public final class NameFortune {
+
+    private final int familyNameStrokes;
+    private final int givenNameStrokes;
+    private final int tenKaku;
+    private final int jinKaku;
+    private final int chiKaku;
+    private final int gaiKaku;
+    private final int soKaku;
+    private final StrokeFortune strokeFortune;
+
+    public NameFortune(int familyNameStrokes, int givenNameStrokes,
+                       int tenKaku, int jinKaku, int chiKaku, int gaiKaku, int soKaku,
+                       StrokeFortune strokeFortune) {
+        this.familyNameStrokes = familyNameStrokes;
+        this.givenNameStrokes = givenNameStrokes;
+        this.tenKaku = tenKaku;
+        this.jinKaku = jinKaku;
+        this.chiKaku = chiKaku;
+        this.gaiKaku = gaiKaku;
+        this.soKaku = soKaku;
+        this.strokeFortune = strokeFortune;
+    }
+
+    public int getFamilyNameStrokes() { return familyNameStrokes; }
+
+    public int getGivenNameStrokes() { return givenNameStrokes; }
+
+    /** Heaven number (天格): family name strokes, plus 1 for a one-character family name. */
+    public int getTenKaku() { return tenKaku; }
+
+    /** Person number (人格): last family name character plus first given name character. */
+    public int getJinKaku() { return jinKaku; }
+
+    /** Earth number (地格): given name strokes, plus 1 for a one-character given name. */
+    public int getChiKaku() { return chiKaku; }
+
+    /** Outer number (外格): 天格 plus 地格 minus 人格. */
+    public int getGaiKaku() { return gaiKaku; }
+
+    /** Total number (総画数). */
+    public int getSoKaku() { return soKaku; }
+
+    public StrokeFortune getStrokeFortune() { return strokeFortune; }
+}
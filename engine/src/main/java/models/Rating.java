@@ -0,0 +1,34 @@
+package models;
+
+/**
+ * The four fortune rating levels.
+ */
+public enum Rating {
+    EXCELLENT("excellent", "大吉"),
+    GOOD("good", "吉"),
+    AVERAGE("average", "中吉"),
+    POOR("poor", "小吉");
+
+    private static final Rating[] VALUES = values();
+
+    private final String key;
+    private final String text;
+
+    Rating(String key, String text) {
+        this.key = key;
+        this.text = text;
+    }
+
+    /**
+     * Returns the rating for a fortune index in 0..3.
+     */
+    public static Rating fromIndex(int index) {
+        return VALUES[index];
+    }
+
+    /** Key used for the `rating-*` CSS classes. */
+    public String getKey() { return key; }
+
+    /** Japanese label of the rating. */
+    public String getText() { return text; }
+}
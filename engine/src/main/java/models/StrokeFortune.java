@@ -0,0 +1,73 @@
+package models;
+
+/**
+ * Interpretation of a name's stroke counts.
+ *
+ * There is exactly one immutable instance per rating, shared by all requests.
+ * The same rating applies to every category.
+ */
+public final class StrokeFortune {
+
+    private static final StrokeFortune[] BY_RATING = {
+        new StrokeFortune(Rating.EXCELLENT,
+            "画数から見て非常に良い運勢を持っています。積極的に行動することで大きな成果を得られるでしょう。",
+            "恋愛面では非常に恵まれた運勢です。理想的な相手と出会える可能性が高いでしょう。",
+            "仕事運が非常に良く、昇進や成功のチャンスに恵まれます。リーダーシップを発揮しましょう。",
+            "健康運も良好で、体力に恵まれています。スポーツなどで才能を発揮できるでしょう。",
+            "あなたの名前は非常に良い画数を持っています。自信を持って積極的に行動することで、人生の多くの分野で成功を収めることができるでしょう。"),
+        new StrokeFortune(Rating.GOOD,
+            "安定した良い運勢を持っています。着実な努力により確実に成果を上げることができます。",
+            "恋愛運は安定しており、誠実な関係を築くことができます。結婚運にも恵まれています。",
+            "仕事では堅実な成果を上げることができます。コツコツとした努力が報われるでしょう。",
+            "健康面は安定しており、大きな病気の心配は少ないでしょう。規則正しい生活を心がけましょう。",
+            "あなたの名前は安定した良い画数を示しています。急がず着実に目標に向かって進むことで、確実に成功を手にすることができます。"),
+        new StrokeFortune(Rating.AVERAGE,
+            "平均的な運勢ですが、努力次第で運勢を向上させることができます。諦めずに頑張りましょう。",
+            "恋愛面では平凡ですが、相手を思いやる気持ちを大切にすることで良い関係を築けます。",
+            "仕事では地道な努力が必要ですが、継続することで必ず結果がついてきます。",
+            "健康面では特に問題ありませんが、生活習慣に気をつけることが大切です。",
+            "あなたの名前は平均的な画数を持っています。運勢は努力次第で向上します。前向きな気持ちを持ち続けることが成功の鍵です。"),
+        new StrokeFortune(Rating.POOR,
+            "やや困難な運勢ですが、困難を乗り越えることで大きく成長できます。諦めない心が大切です。",
+            "恋愛面では試練がありますが、真の愛を見つけることで幸せを掴むことができます。",
+            "仕事では苦労することもありますが、その経験が将来の大きな財産となります。",
+            "健康面では注意が必要です。ストレス管理と規則正しい生活を心がけましょう。",
+            "あなたの名前は試練を示す画数を持っていますが、それは成長の機会でもあります。困難に負けず、前向きに取り組むことで必ず道は開けます。")
+    };
+
+    private final Rating rating;
+    private final String overallFortune;
+    private final String loveFortune;
+    private final String workFortune;
+    private final String healthFortune;
+    private final String advice;
+
+    private StrokeFortune(Rating rating, String overallFortune, String loveFortune,
+                          String workFortune, String healthFortune, String advice) {
+        this.rating = rating;
+        this.overallFortune = overallFortune;
+        this.loveFortune = loveFortune;
+        this.workFortune = workFortune;
+        this.healthFortune = healthFortune;
+        this.advice = advice;
+    }
+
+    /**
+     * Returns the shared stroke fortune for a rating.
+     */
+    public static StrokeFortune of(Rating rating) {
+        return BY_RATING[rating.ordinal()];
+    }
+
+    public Rating getRating() { return rating; }
+
+    public String getOverallFortune() { return overallFortune; }
+
+    public String getLoveFortune() { return loveFortune; }
+
+    public String getWorkFortune() { return workFortune; }
+
+    public String getHealthFortune() { return healthFortune; }
+
+    public String getAdvice() { return advice; }
+}
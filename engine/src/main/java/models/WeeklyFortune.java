@@ -0,0 +1,28 @@
+package models;
+
+/**
+ * Four pillars fortune for consecutive days, starting today.
+ *
+ * Each day is a reference to one of the shared {@link DailyFortune} instances.
+ */
+public final class WeeklyFortune {
+
+    private final String[] dayLabels;
+    private final DailyFortune[] days;
+
+    public WeeklyFortune(String[] dayLabels, DailyFortune[] days) {
+        if (dayLabels.length != days.length) {
+            throw new IllegalArgumentException("Expected one label per day");
+        }
+        this.dayLabels = dayLabels;
+        this.days = days;
+    }
+
+    /** Number of days in the result. */
+    public int size() { return days.length; }
+
+    /** Label of a day, e.g. "今日 (4月1日 火曜日)". */
+    public String getDayLabel(int index) { return dayLabels[index]; }
+
+    public DailyFortune getDay(int index) { return days[index]; }
+}
@@ -0,0 +1,107 @@
+package fortune;
+
+import models.BirthChart;
+import models.Compatibility;
+import models.NameFortune;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompatibilityEngineTest {
+
+    private final CompatibilityEngine engine = new CompatibilityEngine();
+    private final FourPillarsEngine pillars = new FourPillarsEngine();
+    private final NameFortuneEngine names = new NameFortuneEngine(StrokeDictionary.builtin());
+
+    @Test
+    public void scoreIsSymmetricAndInRange() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            int first = random.nextInt(60) | random.nextInt(120) << 6 | random.nextInt(60) << 16;
+            int second = random.nextInt(60) | random.nextInt(120) << 6 | random.nextInt(60) << 16;
+            int score = CompatibilityEngine.score(first, second);
+            assertThat(score).isBetween(0, CompatibilityEngine.MAX_SCORE);
+            assertThat(CompatibilityEngine.score(second, first)).isEqualTo(score);
+        }
+    }
+
+    @Test
+    public void combinesBirthAndNameParts() {
+        BirthChart first = pillars.chart(LocalDate.of(1990, 5, 15), null, null);   // 庚辰
+        BirthChart second = pillars.chart(LocalDate.of(1992, 4, 15), null, null);
+        NameFortune firstName = names.generateNameFortune("佐藤", "太郎");
+        NameFortune secondName = names.generateNameFortune("林", "美香");
+
+        Compatibility result = engine.compare(first, firstName, second, secondName);
+
+        assertThat(result.getScore()).isEqualTo(result.getBirthScore() + result.getNameScore());
+        assertThat(result.getScore()).isEqualTo(CompatibilityEngine.score(
+            CompatibilityEngine.profile(first, firstName), CompatibilityEngine.profile(second, secondName)));
+        assertThat(result.getBirthScore()).isBetween(0, 60);
+        assertThat(result.getNameScore()).isBetween(0, 40);
+    }
+
+    @Test
+    public void dayPillarPart() {
+        // 甲子 and 己丑: 干合 (40) and 六合 (20)
+        assertThat(birthPart(0, 25)).isEqualTo(60);
+        // 甲子 and 庚午: 金 controls 木 (5) and 子午 clash (0)
+        assertThat(birthPart(0, 6)).isEqualTo(5);
+        // 甲子 and 壬申: 水 generates 木 (30) and 子申 are in one 三合 (15)
+        assertThat(birthPart(0, 8)).isEqualTo(45);
+    }
+
+    @Test
+    public void highestScoreIsMaxScore() {
+        int best = 0;
+        for (int a = 0; a < 60; a++) {
+            for (int b = 0; b < 60; b++) {
+                for (int total = 0; total < 100; total++) {
+                    for (int person = 0; person < 10; person++) {
+                        // 人格 1 (木) against every last digit, 総格 sums 0..99
+                        best = Math.max(best, CompatibilityEngine.score(a | total << 6 | 1 << 16, b | person << 16));
+                    }
+                }
+            }
+        }
+
+        assertThat(best).isEqualTo(CompatibilityEngine.MAX_SCORE);
+    }
+
+    @Test
+    public void matrixMatchesPairScores() {
+        SplittableRandom random = new SplittableRandom(11);
+        int[] rows = new int[300];
+        int[] columns = new int[700];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = random.nextInt(60) | random.nextInt(80) << 6 | random.nextInt(40) << 16;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = random.nextInt(60) | random.nextInt(80) << 6 | random.nextInt(40) << 16;
+        }
+
+        byte[] matrix = engine.scoreMatrix(rows, columns, ForkJoinPool.commonPool());
+        byte[] block = new byte[50 * columns.length];
+        engine.scoreRows(rows, 100, 150, columns, block, ForkJoinPool.commonPool());
+
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < columns.length; c++) {
+                assertThat(matrix[r * columns.length + c]).isEqualTo((byte) CompatibilityEngine.score(rows[r], columns[c]));
+            }
+        }
+        for (int r = 0; r < 50; r++) {
+            for (int c = 0; c < columns.length; c++) {
+                assertThat(block[r * columns.length + c]).isEqualTo(matrix[(100 + r) * columns.length + c]);
+            }
+        }
+    }
+
+    /** Day pillar part of two profiles without a name (総格 0 is 半吉: 8 points, 人格 0 and 0 are 比和: 12). */
+    private static int birthPart(int firstPillar, int secondPillar) {
+        return CompatibilityEngine.score(firstPillar, secondPillar) - 20;
+    }
+}
@@ -0,0 +1,36 @@
+package fortune;
+
+import models.Rating;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DailyDigestTest {
+
+    private final FourPillarsEngine engine = new FourPillarsEngine();
+
+    @Test
+    public void matchesTheEngineForEveryBirthDate() {
+        LocalDate today = LocalDate.of(2024, 6, 1);
+        DailyDigest digest = DailyDigest.compute(today);
+
+        assertThat(digest.getDay()).isEqualTo(today);
+        assertThat(digest.size()).isEqualTo(73_414);
+        for (LocalDate birthDate = LocalDate.of(1900, 1, 1); !birthDate.isAfter(LocalDate.of(2100, 12, 31));
+             birthDate = birthDate.plusDays(7)) {
+            assertThat(Rating.fromIndex(digest.ratingIndex(birthDate)))
+                .isEqualTo(engine.generateDailyFortune(today, birthDate).getRating());
+        }
+    }
+
+    @Test
+    public void rejectsBirthDatesOutOfRange() {
+        DailyDigest digest = DailyDigest.compute(LocalDate.of(2024, 6, 1));
+
+        assertThatThrownBy(() -> digest.ratingIndex(LocalDate.of(1899, 12, 31))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> digest.ratingIndex(LocalDate.of(2101, 1, 1))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,140 @@
+package fortune;
+
+import models.BirthChart;
+import models.Rating;
+import models.WeeklyFortune;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FourPillarsEngineTest {
+
+    private final FourPillarsEngine engine = new FourPillarsEngine();
+
+    @Test
+    public void dailyFortuneMatchesWeeklyFortune() {
+        LocalDate today = LocalDate.of(2024, 3, 15);
+        LocalDate birthDate = LocalDate.of(1984, 11, 9);
+
+        WeeklyFortune week = engine.generateWeeklyFortune(today, birthDate);
+
+        assertThat(week.size()).isEqualTo(FortuneWeek.DAYS);
+        for (int i = 0; i < week.size(); i++) {
+            assertThat(engine.generateDailyFortune(today.plusDays(i), birthDate))
+                .as("day %d", i)
+                .isSameAs(week.getDay(i));
+        }
+    }
+
+    @Test
+    public void dayPillarsMatchKnownDates() {
+        assertThat(chart("2000-01-01", null, null).getDayPillarName()).isEqualTo("戊午");
+        assertThat(chart("1949-10-01", null, null).getDayPillarName()).isEqualTo("甲子");
+        assertThat(chart("2024-02-10", null, null).getDayPillarName()).isEqualTo("甲辰");
+        assertThat(chart("1900-01-01", null, null).getDayPillarName()).isEqualTo("甲戌");
+    }
+
+    @Test
+    public void knownCharts() {
+        assertThat(chart("2000-01-01", "12:30", "兵庫県").toString()).isEqualTo("己卯 丙子 戊午 戊午");
+        assertThat(chart("1984-11-09", null, "東京都").toString()).isEqualTo("甲子 乙亥 丁未");
+        assertThat(chart("2024-03-20", "12:06", "東京都").toString()).isEqualTo("甲辰 丁卯 癸未 戊午");
+    }
+
+    @Test
+    public void yearAndMonthChangeAtRisshun() {
+        // 立春 2024 was at 17:27 JST on February 4th
+        BirthChart before = chart("2024-02-04", "17:26", "兵庫県");
+        BirthChart after = chart("2024-02-04", "17:28", "兵庫県");
+
+        assertThat(before.getYearPillarName()).isEqualTo("癸卯");
+        assertThat(before.getMonthPillarName()).isEqualTo("乙丑");
+        assertThat(after.getYearPillarName()).isEqualTo("甲辰");
+        assertThat(after.getMonthPillarName()).isEqualTo("丙寅");
+
+        // 立春 2021 was at 23:59 JST on February 3rd
+        assertThat(chart("2021-02-03", "23:58", null).getYearPillarName()).isEqualTo("庚子");
+        assertThat(chart("2021-02-04", "00:00", null).getYearPillarName()).isEqualTo("辛丑");
+    }
+
+    @Test
+    public void monthBeforeShokanBelongsToPreviousSolarYear() {
+        // 小寒 2024 was at 05:49 JST on January 6th
+        assertThat(chart("2024-01-05", "12:00", null).getMonthPillarName()).isEqualTo("甲子");
+        assertThat(chart("2024-01-06", "12:00", null).getMonthPillarName()).isEqualTo("乙丑");
+        assertThat(chart("2024-01-06", "12:00", null).getYearPillarName()).isEqualTo("癸卯");
+    }
+
+    @Test
+    public void hourPillarUsesLocalMeanTime() {
+        // 12:50 JST is 13:15 local mean time in Sapporo but 12:21 in Naha
+        assertThat(chart("2000-01-01", "12:50", "北海道").getHourPillarName()).isEqualTo("己未");
+        assertThat(chart("2000-01-01", "12:50", "沖縄県").getHourPillarName()).isEqualTo("戊午");
+    }
+
+    @Test
+    public void lateRatHourTakesNextDayStem() {
+        BirthChart chart = chart("2000-01-01", "23:30", "兵庫県");
+
+        assertThat(chart.getDayPillarName()).isEqualTo("戊午");
+        assertThat(chart.getHourPillarName()).isEqualTo("甲子");
+
+        // 00:10 JST in Naha is still 23:41 of the previous day in local mean time
+        BirthChart naha = chart("2000-01-02", "00:10", "沖縄県");
+        assertThat(naha.getDayPillarName()).isEqualTo("戊午");
+        assertThat(naha.getHourPillarName()).isEqualTo("甲子");
+    }
+
+    @Test
+    public void unknownBirthTimeHasNoHourPillar() {
+        BirthChart chart = chart("1990-05-15", null, "東京都");
+
+        assertThat(chart.hasHourPillar()).isFalse();
+        assertThat(chart.getHourPillarName()).isEmpty();
+    }
+
+    @Test
+    public void weeklyFortuneDependsOnDayPillarOnly() {
+        LocalDate today = LocalDate.of(2024, 3, 15);
+        BirthChart chart = chart("1990-05-15", "08:00", "東京都");
+
+        assertThat(engine.generateWeeklyFortune(today, chart).getDay(0))
+            .isSameAs(engine.generateWeeklyFortune(today, LocalDate.of(1990, 5, 15)).getDay(0));
+    }
+
+    @Test
+    public void ratingFollowsFiveElementsAndBranches() {
+        int kinoeNe = 0; // 甲子, a 木 day master
+        assertThat(rating(kinoeNe, "壬申")).isEqualTo(Rating.EXCELLENT); // 水 generates 木
+        assertThat(rating(kinoeNe, "甲寅")).isEqualTo(Rating.GOOD);      // same element
+        assertThat(rating(kinoeNe, "丙寅")).isEqualTo(Rating.AVERAGE);   // 木 generates 火
+        assertThat(rating(kinoeNe, "辛未")).isEqualTo(Rating.POOR);      // 金 controls 木
+        assertThat(rating(kinoeNe, "庚午")).isEqualTo(Rating.POOR);      // 金 controls 木, 子午 clash
+        assertThat(rating(kinoeNe, "戊午")).isEqualTo(Rating.AVERAGE);   // 木 controls 土, 子午 clash
+        assertThat(rating(kinoeNe, "己丑")).isEqualTo(Rating.EXCELLENT); // 木 controls 土, 子丑 combine
+    }
+
+    @Test
+    public void rejectsDatesOutsideTheTable() {
+        assertThatThrownBy(() -> chart("1899-12-31", null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chart("2101-01-01", null, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Rating rating(int birthDayPillar, String dayPillarName) {
+        for (int pillar = 0; pillar < 60; pillar++) {
+            if (BirthChart.pillarName(pillar).equals(dayPillarName)) {
+                LocalDate date = LocalDate.ofEpochDay(pillar - 17);
+                return Rating.fromIndex(FortuneWeek.ratingIndex(date, birthDayPillar));
+            }
+        }
+        throw new IllegalArgumentException(dayPillarName);
+    }
+
+    private BirthChart chart(String date, String time, String prefecture) {
+        return engine.chart(LocalDate.parse(date), time == null ? null : LocalTime.parse(time), prefecture);
+    }
+}
@@ -0,0 +1,96 @@
+package fortune;
+
+import models.NameCandidate;
+import models.NameFortune;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GivenNameIndexTest {
+
+    private static final List<String> NAMES = Arrays.asList(
+        "太郎", "一郎", "健", "正", "明美", "美香", "さくら", "はな", "ハルト", "一", "愛子", "真一", "光", "和夫");
+    private static final int[] GENDERS = {
+        GivenNameIndex.MALE, GivenNameIndex.MALE, GivenNameIndex.MALE, GivenNameIndex.ANY_GENDER,
+        GivenNameIndex.FEMALE, GivenNameIndex.FEMALE, GivenNameIndex.FEMALE, GivenNameIndex.FEMALE,
+        GivenNameIndex.MALE, GivenNameIndex.MALE, GivenNameIndex.FEMALE, GivenNameIndex.MALE,
+        GivenNameIndex.ANY_GENDER, GivenNameIndex.MALE};
+
+    private final StrokeDictionary dictionary = StrokeDictionary.builtin();
+    private final NameFortuneEngine engine = new NameFortuneEngine(dictionary);
+    private final GivenNameIndex index = GivenNameIndex.of(dictionary, NAMES, GENDERS);
+
+    @Test
+    public void matchesBruteForceRanking() {
+        List<NameCandidate> candidates = index.search("佐藤", GivenNameIndex.ANY_GENDER, 0, false, "", 0, NAMES.size());
+
+        assertThat(candidates).hasSize(NAMES.size());
+        List<String> expected = new ArrayList<>(NAMES);
+        expected.sort(Comparator.comparingInt((String name) -> -score("佐藤", name)));
+        for (int i = 0; i < candidates.size(); i++) {
+            NameCandidate candidate = candidates.get(i);
+            NameFortune fortune = engine.generateNameFortune("佐藤", candidate.getGivenName());
+            assertThat(candidate.getScore()).isEqualTo(score("佐藤", expected.get(i)));
+            assertThat(candidate.getScore()).isEqualTo(GivenNameIndex.score(fortune));
+            assertThat(candidate.getFortune().getJinKaku()).isEqualTo(fortune.getJinKaku());
+            assertThat(candidate.getFortune().getChiKaku()).isEqualTo(fortune.getChiKaku());
+            assertThat(candidate.getFortune().getGaiKaku()).isEqualTo(fortune.getGaiKaku());
+            assertThat(candidate.getFortune().getSoKaku()).isEqualTo(fortune.getSoKaku());
+        }
+    }
+
+    @Test
+    public void kanaOnlyMeansKanaLetters() {
+        List<String> names = Arrays.asList("ユーキ", "ゆゞ", "ン\u3099", "ア゠ン", "ア・ン", "ア\u3097");
+        int[] genders = new int[names.size()];
+        Arrays.fill(genders, GivenNameIndex.ANY_GENDER);
+        GivenNameIndex kana = GivenNameIndex.of(dictionary, names, genders);
+
+        assertThat(kana.search("林", GivenNameIndex.ANY_GENDER, 0, true, "", 0, 10))
+            .extracting(NameCandidate::getGivenName)
+            .containsOnly("ユーキ", "ゆゞ");
+    }
+
+    @Test
+    public void appliesConstraints() {
+        for (NameCandidate candidate : index.search("林", GivenNameIndex.FEMALE, 0, true, "", 0, 10)) {
+            assertThat(candidate.getGivenName()).isIn("さくら", "はな");
+        }
+        assertThat(index.search("林", GivenNameIndex.MALE, 1, false, "", 0, 10))
+            .extracting(NameCandidate::getGivenName)
+            .containsOnly("健", "正", "一", "光");
+        assertThat(index.search("林", GivenNameIndex.ANY_GENDER, 0, false, "一", 0, 10))
+            .extracting(NameCandidate::getGivenName)
+            .containsOnly("一郎", "一", "真一");
+    }
+
+    @Test
+    public void limitsAndMinimumScore() {
+        assertThat(index.search("佐藤", GivenNameIndex.ANY_GENDER, 0, false, "", 0, 3)).hasSize(3);
+        for (NameCandidate candidate : index.search("佐藤", GivenNameIndex.ANY_GENDER, 0, false, "", 12, 100)) {
+            assertThat(candidate.getScore()).isGreaterThanOrEqualTo(12);
+        }
+        assertThat(index.search("佐藤", GivenNameIndex.ANY_GENDER, 0, false, "", GivenNameIndex.MAX_SCORE + 1, 100))
+            .isEmpty();
+    }
+
+    @Test
+    public void groupsNamesBySignature() {
+        // さくら, はな and ハルト all have 7 strokes with 3 in the first character, so
+        // they share one group; 太郎 (4+9) and 一郎 (1+9) differ in the first character
+        assertThat(index.size()).isEqualTo(NAMES.size());
+        assertThat(index.groupCount()).isEqualTo(NAMES.size() - 2);
+        GivenNameIndex duplicates = GivenNameIndex.of(dictionary, Arrays.asList("一郎", "一郎"), new int[] {1, 2});
+        assertThat(duplicates.size()).isEqualTo(1);
+        assertThat(duplicates.groupCount()).isEqualTo(1);
+    }
+
+    private int score(String familyName, String givenName) {
+        return GivenNameIndex.score(engine.generateNameFortune(familyName, givenName));
+    }
+}
@@ -0,0 +1,77 @@
+package fortune;
+
+import models.NameFortune;
+import models.Rating;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NameFortuneEngineTest {
+
+    private final NameFortuneEngine engine = new NameFortuneEngine(StrokeDictionary.builtin());
+
+    @Test
+    public void fiveNumbersOfTwoByTwoName() {
+        // 佐(7) 藤(18) 太(4) 郎(9)
+        NameFortune result = engine.generateNameFortune("佐藤", "太郎");
+
+        assertThat(result.getTenKaku()).isEqualTo(25);
+        assertThat(result.getJinKaku()).isEqualTo(22);
+        assertThat(result.getChiKaku()).isEqualTo(13);
+        assertThat(result.getGaiKaku()).isEqualTo(16);
+        assertThat(result.getSoKaku()).isEqualTo(38);
+    }
+
+    @Test
+    public void spiritNumbersForOneCharacterNames() {
+        // 林(8) 一(1): 天格 and 地格 get 霊数 1 each, 総格 does not
+        NameFortune result = engine.generateNameFortune("林", "一");
+
+        assertThat(result.getTenKaku()).isEqualTo(9);
+        assertThat(result.getJinKaku()).isEqualTo(9);
+        assertThat(result.getChiKaku()).isEqualTo(2);
+        assertThat(result.getGaiKaku()).isEqualTo(2);
+        assertThat(result.getSoKaku()).isEqualTo(9);
+    }
+
+    @Test
+    public void spiritNumberForOneCharacterFamilyName() {
+        // 林(8) 美(9) 香(9)
+        NameFortune result = engine.generateNameFortune("林", "美香");
+
+        assertThat(result.getTenKaku()).isEqualTo(9);
+        assertThat(result.getJinKaku()).isEqualTo(17);
+        assertThat(result.getChiKaku()).isEqualTo(18);
+        assertThat(result.getGaiKaku()).isEqualTo(10);
+        assertThat(result.getSoKaku()).isEqualTo(26);
+    }
+
+    @Test
+    public void countsSupplementaryCharactersOnce() {
+        NameFortune result = engine.generateNameFortune("𠮷田", "一");
+
+        assertThat(result.getFamilyNameStrokes()).isEqualTo(engine.calculateStrokes("𠮷") + 5);
+        assertThat(result.getJinKaku()).isEqualTo(5 + 1);
+        // Two characters, so no 霊数 on 天格
+        assertThat(result.getTenKaku()).isEqualTo(result.getFamilyNameStrokes());
+    }
+
+    @Test
+    public void ratingUsesTheEightyOneNumbers() {
+        assertThat(NameFortuneEngine.rating(1)).isEqualTo(Rating.EXCELLENT);
+        assertThat(NameFortuneEngine.rating(9)).isEqualTo(Rating.POOR);
+        assertThat(NameFortuneEngine.rating(38)).isEqualTo(Rating.GOOD);
+        assertThat(NameFortuneEngine.rating(40)).isEqualTo(Rating.AVERAGE);
+        assertThat(NameFortuneEngine.rating(81)).isEqualTo(Rating.EXCELLENT);
+        // Above 81 the cycle starts over at 2
+        assertThat(NameFortuneEngine.rating(82)).isEqualTo(NameFortuneEngine.rating(2));
+        assertThat(NameFortuneEngine.rating(161)).isEqualTo(NameFortuneEngine.rating(1));
+    }
+
+    @Test
+    public void strokeFortuneFollowsTotalNumber() {
+        NameFortune result = engine.generateNameFortune("佐藤", "太郎");
+
+        assertThat(result.getStrokeFortune().getRating()).isEqualTo(NameFortuneEngine.rating(result.getSoKaku()));
+    }
+}
@@ -0,0 +1,56 @@
+package fortune;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SolarTermsTest {
+
+    private final SolarTerms terms = SolarTerms.bundled();
+
+    @Test
+    public void coversSupportedYears() {
+        assertThat(terms.getFirstYear()).isLessThanOrEqualTo(FourPillarsEngine.MIN_YEAR - 1);
+        assertThat(terms.getLastYear()).isGreaterThanOrEqualTo(FourPillarsEngine.MAX_YEAR + 1);
+    }
+
+    @Test
+    public void matchesPublishedTermTimes() {
+        // Japan Standard Time, from the National Astronomical Observatory of Japan almanac
+        assertThat(jst(2021, SolarTerms.RISSHUN)).isEqualTo("2021-02-03T23:59");
+        assertThat(jst(2024, SolarTerms.RISSHUN)).isEqualTo("2024-02-04T17:27");
+        assertThat(jst(2025, SolarTerms.RISSHUN)).isEqualTo("2025-02-03T23:10");
+        assertThat(jst(2000, 5)).isEqualTo("2000-03-20T16:35");
+        assertThat(jst(2024, 5)).isEqualTo("2024-03-20T12:06");
+        assertThat(jst(2023, 8)).isEqualTo("2023-05-06T03:19");
+    }
+
+    @Test
+    public void generatorIsDeterministic() {
+        for (int year : new int[] {1900, 1985, 2050, 2100}) {
+            for (int term = 0; term < SolarTerms.TERMS; term++) {
+                assertThat(terms.termMinute(year, term)).isEqualTo(SolarTermTableGenerator.termEpochMinute(year, term));
+            }
+        }
+    }
+
+    @Test
+    public void solarMonthAroundNewYear() {
+        long shokan = terms.termMinute(2024, 0);
+
+        assertThat(terms.solarMonth(shokan - 1, 2024)).isEqualTo(12 * 2023 + 10);
+        assertThat(terms.solarMonth(shokan, 2024)).isEqualTo(12 * 2023 + 11);
+        // A JST date in the new year can still be December 31st in UTC
+        assertThat(terms.solarMonth(shokan, 2023)).isEqualTo(12 * 2023 + 11);
+        assertThat(terms.solarMonth(terms.termMinute(2024, SolarTerms.RISSHUN), 2024)).isEqualTo(12 * 2024);
+    }
+
+    private String jst(int year, int term) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(terms.termMinute(year, term) * 60), ZoneOffset.ofHours(9))
+            .toString();
+    }
+}
@@ -0,0 +1,71 @@
+package fortune;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StrokeDatabaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Stroke counts of 一, 佐, 田, 藤 and 𠮷, with one line of another field. */
+    private static final String FIXTURE = "kTotalStrokes.txt";
+
+    private Path compileFixture() throws Exception {
+        Path target = folder.getRoot().toPath().resolve("strokes.bin");
+        StrokeDatabaseCompiler.write(StrokeDatabaseCompiler.readSource(fixture()), target);
+        return target;
+    }
+
+    private static Path fixture() throws Exception {
+        return Paths.get(StrokeDatabaseTest.class.getResource(FIXTURE).toURI());
+    }
+
+    @Test
+    public void compiledDatabaseMatchesSource() throws Exception {
+        Map<Integer, Integer> source = StrokeDatabaseCompiler.readSource(fixture());
+        StrokeDatabase database = StrokeDatabase.open(compileFixture());
+
+        assertThat(source).hasSize(5);
+        for (Map.Entry<Integer, Integer> entry : source.entrySet()) {
+            assertThat(database.strokes(entry.getKey()))
+                .as("U+%04X", entry.getKey())
+                .isEqualTo(entry.getValue());
+        }
+    }
+
+    @Test
+    public void compileRoundTrip() throws Exception {
+        TreeMap<Integer, Integer> strokes = new TreeMap<>();
+        strokes.put(0x4E00, 1);    // 一
+        strokes.put(0x85E4, 18);   // 藤
+        strokes.put(0x20BB7, 6);   // 𠮷 (CJK Extension B)
+        Path target = folder.getRoot().toPath().resolve("strokes.bin");
+
+        StrokeDatabaseCompiler.write(strokes, target);
+        StrokeDatabase database = StrokeDatabase.open(target);
+
+        assertThat(database.strokes(0x4E00)).isEqualTo(1);
+        assertThat(database.strokes(0x85E4)).isEqualTo(18);
+        assertThat(database.strokes(0x20BB7)).isEqualTo(6);
+        assertThat(database.strokes(0x4E01)).isEqualTo(0);
+        assertThat(database.strokes(0x41)).isEqualTo(0);
+    }
+
+    @Test
+    public void surrogatePairsCountAsOneCharacter() throws Exception {
+        StrokeDictionary dictionary = StrokeDictionary.withDatabase(StrokeDatabase.open(compileFixture()));
+
+        assertThat(dictionary.totalStrokes("𠮷田")).isEqualTo(11);
+        assertThat(dictionary.totalStrokes("佐藤")).isEqualTo(25);
+        assertThat(dictionary.totalStrokes("")).isEqualTo(0);
+    }
+}
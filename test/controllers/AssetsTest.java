@@ -0,0 +1,45 @@
+package controllers;
+
+import org.junit.Test;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class AssetsTest extends WithApplication {
+
+    private Result get(String uri, String acceptEncoding) {
+        Http.RequestBuilder request = fakeRequest(GET, uri).host("localhost:19001");
+        if (acceptEncoding != null) {
+            request.header(Http.HeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return route(app, request);
+    }
+
+    @Test
+    public void servesGzipVariantWhenAccepted() {
+        Result result = get("/assets/stylesheets/main.css", "gzip");
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(result.header(Http.HeaderNames.VARY)).hasValue(Http.HeaderNames.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void servesBrotliVariantWhenPreferred() {
+        Result result = get("/assets/javascripts/main.js", "br, gzip");
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.CONTENT_ENCODING)).hasValue("br");
+    }
+
+    @Test
+    public void servesIdentityWithoutAcceptEncoding() {
+        Result result = get("/assets/stylesheets/main.css", null);
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.CONTENT_ENCODING)).isEmpty();
+    }
+}
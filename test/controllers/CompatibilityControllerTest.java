@@ -0,0 +1,118 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class CompatibilityControllerTest extends WithApplication {
+
+    private static final String[][] PEOPLE = {
+        {"1990-05-15", "08:30", "東京都", "佐藤", "健太"},
+        {"1992-11-03", "", "大阪府", "鈴木", "美咲"},
+        {"1985-01-20", "23:10", "北海道", "高橋", "翔"},
+        {"2001-07-07", "", "", "田中", "さくら"},
+    };
+
+    private static ObjectNode person(int i) {
+        String[] p = PEOPLE[i];
+        return Json.newObject()
+            .put("birthDate", p[0])
+            .put("birthTime", p[1])
+            .put("prefecture", p[2])
+            .put("familyName", p[3])
+            .put("givenName", p[4]);
+    }
+
+    private Result post(String uri, JsonNode body, String accept) {
+        Http.RequestBuilder request = fakeRequest(POST, uri)
+            .host("localhost:19001")
+            .header(Http.HeaderNames.ACCEPT, accept)
+            .bodyJson(body);
+        return route(app, request);
+    }
+
+    private JsonNode pair(int first, int second) {
+        ObjectNode body = Json.newObject();
+        body.set("first", person(first));
+        body.set("second", person(second));
+        Result result = post("/api/compatibility", body, Http.MimeTypes.JSON);
+        assertThat(result.status()).isEqualTo(OK);
+        return Json.parse(contentAsString(result));
+    }
+
+    private static ObjectNode matrixBody() {
+        ObjectNode body = Json.newObject();
+        ArrayNode left = body.putArray("left");
+        left.add(person(0)).add(person(1)).add(person(2));
+        ArrayNode right = body.putArray("right");
+        right.add(person(3)).add(person(0));
+        return body;
+    }
+
+    @Test
+    public void scoresPairWithItsParts() {
+        JsonNode json = pair(0, 1);
+
+        assertThat(json.path("score").asInt()).isBetween(0, 100);
+        assertThat(json.path("birthScore").asInt() + json.path("nameScore").asInt())
+            .isEqualTo(json.path("score").asInt());
+        assertThat(json.path("second").path("dayPillar").asText()).isNotEmpty();
+        assertThat(pair(1, 0).path("score").asInt()).isEqualTo(json.path("score").asInt());
+    }
+
+    @Test
+    public void streamsMatrixMatchingPairScores() {
+        Result result = post("/api/compatibility/matrix", matrixBody(), Http.MimeTypes.JSON);
+
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.path("rows").asInt()).isEqualTo(3);
+        assertThat(json.path("columns").asInt()).isEqualTo(2);
+        int[] columns = {3, 0};
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 2; column++) {
+                assertThat(json.path("scores").get(row).get(column).asInt())
+                    .isEqualTo(pair(row, columns[column]).path("score").asInt());
+            }
+        }
+    }
+
+    @Test
+    public void streamsMatrixAsBytesOnRequest() {
+        JsonNode json = Json.parse(contentAsString(
+            post("/api/compatibility/matrix", matrixBody(), Http.MimeTypes.JSON), mat));
+        Result result = post("/api/compatibility/matrix", matrixBody(), Http.MimeTypes.BINARY);
+
+        assertThat(result.contentType()).hasValue(Http.MimeTypes.BINARY);
+        byte[] bytes = contentAsBytes(result, mat).toArray();
+        assertThat(bytes).hasSize(6);
+        for (int i = 0; i < bytes.length; i++) {
+            assertThat((int) bytes[i]).isEqualTo(json.path("scores").get(i / 2).get(i % 2).asInt());
+        }
+    }
+
+    @Test
+    public void rejectsInvalidPeople() {
+        ObjectNode missingName = Json.newObject();
+        missingName.set("first", person(0));
+        missingName.set("second", person(1).put("givenName", ""));
+        assertThat(post("/api/compatibility", missingName, Http.MimeTypes.JSON).status()).isEqualTo(BAD_REQUEST);
+
+        ObjectNode badDate = Json.newObject();
+        badDate.set("first", person(0).put("birthDate", "1990-13-40"));
+        badDate.set("second", person(1));
+        assertThat(post("/api/compatibility", badDate, Http.MimeTypes.JSON).status()).isEqualTo(BAD_REQUEST);
+
+        ObjectNode emptyList = matrixBody();
+        emptyList.putArray("right");
+        assertThat(post("/api/compatibility/matrix", emptyList, Http.MimeTypes.JSON).status()).isEqualTo(BAD_REQUEST);
+    }
+}
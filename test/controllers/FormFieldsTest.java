@@ -0,0 +1,38 @@
+package controllers;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FormFieldsTest {
+
+    @Test
+    public void decodesTheFirstValueOfEachField() {
+        FormFields fields = FormFields.parse(
+            "familyName=%E4%BD%90%E8%97%A4&givenName=a+b&givenName=other&gender=&flag&=x&broken=%E4%B");
+
+        assertThat(fields.get("familyName")).isEqualTo("佐藤");
+        assertThat(fields.get("givenName")).isEqualTo("a b");
+        assertThat(fields.get("gender")).isEqualTo("");
+        assertThat(fields.get("flag")).isEqualTo("");
+        assertThat(fields.get("broken")).isNull();
+        assertThat(fields.get("missing")).isNull();
+        assertThat(FormFields.of(Map.of("gender", new String[] {"male", "female"})).get("gender")).isEqualTo("male");
+    }
+
+    @Test
+    public void bindsOnlyStrictBirthDatesInRange() {
+        assertThat(HomeController.FortuneData.bind(FormFields.parse("birthDate=1990-05-15&gender=female")).gender)
+            .isEqualTo("female");
+        assertThat(HomeController.isBirthDate("2000-02-29")).isTrue();
+        assertThat(HomeController.isBirthDate("2100-12-31")).isTrue();
+        for (String invalid : new String[] {null, "", "1990-5-15", "15/05/1990", "1990-02-30", "1900-02-29",
+                "1899-12-31", "2101-01-01", "１９９０-05-15", "1990-05-15T00:00"}) {
+            assertThat(HomeController.isBirthDate(invalid)).as(String.valueOf(invalid)).isFalse();
+        }
+        assertThat(HomeController.NameFortuneData.bind(FormFields.parse("familyName=%E4%BD%90%E8%97%A4&givenName=+")))
+            .isNull();
+    }
+}
@@ -0,0 +1,208 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import fortune.Sexagenary;
+import models.BirthChart;
+import org.junit.Test;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class FortuneApiControllerTest extends WithApplication {
+
+    private Result post(String body) {
+        return post("/api/fortunes", Http.MimeTypes.JSON, body);
+    }
+
+    private Result post(String uri, String contentType, String body) {
+        Http.RequestBuilder request = fakeRequest(POST, uri)
+            .host("localhost:19001")
+            .header(Http.HeaderNames.CONTENT_TYPE, contentType)
+            .bodyText(body);
+        return route(app, request);
+    }
+
+    @Test
+    public void streamsOneResultPerRecordInOrder() {
+        StringBuilder body = new StringBuilder("[");
+        int records = 2000;
+        for (int i = 0; i < records; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"birthDate\":\"").append(1950 + i % 50).append("-05-15\",\"gender\":\"female\"}");
+        }
+        body.append(']');
+
+        Result result = post(body.toString());
+
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.size()).isEqualTo(records);
+        assertThat(json.get(0).path("birthDate").asText()).isEqualTo("1950-05-15");
+        assertThat(json.get(records - 1).path("birthDate").asText()).isEqualTo("1999-05-15");
+        assertThat(json.get(0).path("days").size()).isEqualTo(7);
+    }
+
+    @Test
+    public void invalidRecordsYieldErrors() {
+        Result result = post("[{\"birthDate\":\"1990-05-15\",\"gender\":\"male\"},{\"birthDate\":\"15/05/1990\"}]");
+
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.size()).isEqualTo(2);
+        assertThat(json.get(0).has("days")).isTrue();
+        assertThat(json.get(1).path("error").asText()).isEqualTo("birthDate must be yyyy-MM-dd");
+    }
+
+    @Test
+    public void tooLongRecordEndsTheArrayWithAnError() {
+        String tooLong = "{\"birthDate\":\"1990-05-15\",\"prefecture\":\"" + "x".repeat(5000) + "\"}";
+        Result result = post("[{\"birthDate\":\"1990-05-15\",\"gender\":\"male\"}," + tooLong
+            + ",{\"birthDate\":\"1991-05-15\",\"gender\":\"male\"}]");
+
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.size()).isEqualTo(2);
+        assertThat(json.get(0).has("days")).isTrue();
+        assertThat(json.get(1).path("error").asText()).isEqualTo("record too long or not a JSON object");
+    }
+
+    @Test
+    public void recordsUseTheBirthChartLikeTheResultPage() {
+        // 23:50 in Hokkaido is 00:15 local mean time, so the day pillar is the next day's
+        Result batch = post("[{\"birthDate\":\"1990-05-15\",\"birthTime\":\"23:50\",\"prefecture\":\"北海道\"}]");
+        Result page = route(app, fakeRequest(GET, "/fortune?birthDate=1990-05-15&birthTime=23%3A50"
+            + "&prefecture=%E5%8C%97%E6%B5%B7%E9%81%93&gender=male"));
+
+        JsonNode record = Json.parse(contentAsString(batch, mat)).get(0);
+        String html = contentAsString(page, mat);
+        List<String> batchRatings = new ArrayList<>();
+        for (JsonNode day : record.path("days")) {
+            batchRatings.add(day.path("rating").asText());
+        }
+        List<String> pageRatings = new ArrayList<>();
+        Matcher rating = Pattern.compile("fortune-rating rating-(\\w+)").matcher(html);
+        while (rating.find()) {
+            pageRatings.add(rating.group(1));
+        }
+
+        assertThat(page.status()).isEqualTo(OK);
+        Matcher dayPillar = Pattern.compile("日柱</strong><br>\\s*(\\S+)").matcher(html);
+        assertThat(dayPillar.find()).isTrue();
+        assertThat(record.path("dayPillar").asText()).isEqualTo(dayPillar.group(1));
+        assertThat(record.path("dayPillar").asText())
+            .isNotEqualTo(BirthChart.pillarName(Sexagenary.dayPillar(LocalDate.of(1990, 5, 15))));
+        assertThat(batchRatings).hasSize(7);
+        assertThat(batchRatings).isEqualTo(pageRatings);
+    }
+
+    @Test
+    public void birthDatesOutsideTheEngineRangeYieldErrors() {
+        Result result = post("[{\"birthDate\":\"1899-12-31\"},{\"birthDate\":\"2101-01-01\"}]");
+
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.size()).isEqualTo(2);
+        assertThat(json.get(0).path("error").asText()).isEqualTo("birthDate must be between 1900 and 2100");
+        assertThat(json.get(1).path("error").asText()).isEqualTo("birthDate must be between 1900 and 2100");
+    }
+
+    @Test
+    public void emptyArray() {
+        Result result = post("[]");
+
+        assertThat(contentAsString(result, mat)).isEqualTo("[]");
+    }
+
+    @Test
+    public void judgesNdjsonRowsWithPerRowErrors() {
+        Result result = post("/api/namefortunes", "application/x-ndjson",
+            "{\"familyName\":\"佐藤\",\"givenName\":\"花子\",\"gender\":\"female\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"familyName\":\"ｻﾄｳ\",\"givenName\":\"\"}\n");
+
+        String[] lines = contentAsString(result, mat).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = Json.parse(lines[0]);
+        assertThat(first.path("line").asInt()).isEqualTo(1);
+        assertThat(first.path("soKaku").asInt()).isEqualTo(35);
+        assertThat(Json.parse(lines[1]).path("error").asText()).isEqualTo("malformed row");
+        assertThat(Json.parse(lines[2]).path("line").asInt()).isEqualTo(4);
+        assertThat(Json.parse(lines[2]).path("error").asText()).isEqualTo("familyName and givenName are required");
+    }
+
+    @Test
+    public void tooLongLineEndsTheStreamAfterAllEarlierResults() {
+        StringBuilder body = new StringBuilder();
+        int good = 3000;
+        for (int i = 0; i < good; i++) {
+            body.append("{\"familyName\":\"佐藤\",\"givenName\":\"花子\"}\n");
+        }
+        body.append("x".repeat(5000)).append('\n');
+        body.append("{\"familyName\":\"佐藤\",\"givenName\":\"花子\"}\n");
+
+        String[] lines = contentAsString(post("/api/namefortunes", "application/x-ndjson", body.toString()), mat)
+            .split("\n");
+
+        assertThat(lines).hasSize(good + 1);
+        for (int i = 0; i < good; i++) {
+            assertThat(Json.parse(lines[i]).path("line").asInt()).isEqualTo(i + 1);
+            assertThat(Json.parse(lines[i]).path("soKaku").asInt()).isEqualTo(35);
+        }
+        JsonNode error = Json.parse(lines[good]);
+        assertThat(error.path("line").asInt()).isEqualTo(good + 1);
+        assertThat(error.path("error").asText()).isEqualTo("line too long");
+    }
+
+    @Test
+    public void tooLongCsvLineIsNumbered() {
+        String body = "佐藤,花子,female\n" + "x".repeat(5000) + "\n";
+
+        String[] lines = contentAsString(post("/api/namefortunes", "text/csv", body), mat).split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[1]).startsWith("1,");
+        assertThat(lines[2]).isEqualTo("2,,,,,,,,,,,,,line too long");
+    }
+
+    @Test
+    public void judgesCsvRows() {
+        Result result = post("/api/namefortunes", "text/csv",
+            "familyName,givenName,gender\r\n佐藤,花子,female\r\n\"高橋\",\"健太郎\",male\r\n\"broken,row\r\n");
+
+        String[] lines = contentAsString(result, mat).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("line,familyName,givenName");
+        assertThat(lines[1]).startsWith("2,佐藤,花子,female,25,10,");
+        assertThat(lines[2]).startsWith("3,高橋,健太郎,male,26,24,");
+        assertThat(lines[3]).isEqualTo("4,,,,,,,,,,,,,malformed row");
+    }
+
+    @Test
+    public void todayFortuneIsCacheableUntilMidnight() {
+        Result result = route(app, fakeRequest(GET, "/api/fortunes/today?birthDate=1990-05-15").host("localhost:19001"));
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.CACHE_CONTROL)).hasValueSatisfying(v -> assertThat(v).startsWith("public, max-age="));
+        JsonNode json = Json.parse(contentAsString(result, mat));
+        assertThat(json.path("birthDate").asText()).isEqualTo("1990-05-15");
+        assertThat(json.path("rating").asText()).isNotEmpty();
+        assertThat(json.path("overall").asText()).isNotEmpty();
+    }
+
+    @Test
+    public void todayFortuneRejectsBadBirthDates() {
+        assertThat(route(app, fakeRequest(GET, "/api/fortunes/today?birthDate=15/05/1990").host("localhost:19001")).status())
+            .isEqualTo(BAD_REQUEST);
+        assertThat(route(app, fakeRequest(GET, "/api/fortunes/today?birthDate=1850-01-01").host("localhost:19001")).status())
+            .isEqualTo(BAD_REQUEST);
+    }
+}
@@ -0,0 +1,126 @@
+package controllers;
+
+import org.junit.Test;
+import play.api.test.CSRFTokenHelper;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class HomeControllerTest extends WithApplication {
+
+    private static final String FORTUNE_URL =
+        "/fortune?birthDate=1990-05-15&birthTime=&prefecture=%E6%9D%B1%E4%BA%AC%E9%83%BD&gender=female";
+    private static final String NAME_FORTUNE_URL =
+        "/namefortune/result?familyName=%E4%BD%90%E8%97%A4&givenName=%E5%A4%AA%E9%83%8E&gender=male";
+
+    private Result get(String uri, String ifNoneMatch) {
+        Http.RequestBuilder request = fakeRequest(GET, uri).host("localhost:19001");
+        if (ifNoneMatch != null) {
+            request.header(Http.HeaderNames.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return route(app, request);
+    }
+
+    @Test
+    public void fortuneResultIsCacheableUntilMidnight() {
+        Result result = get(FORTUNE_URL, null);
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.ETAG)).hasValueSatisfying(etag -> assertThat(etag).startsWith("\""));
+        String cacheControl = result.header(Http.HeaderNames.CACHE_CONTROL).orElse("");
+        assertThat(cacheControl).startsWith("public, max-age=");
+        long maxAge = Long.parseLong(cacheControl.substring("public, max-age=".length()));
+        assertThat(maxAge).isBetween(0L, 24L * 60 * 60);
+        assertThat(contentAsString(result)).contains("週間運勢");
+    }
+
+    @Test
+    public void fortuneResultShowsBirthChart() {
+        Result result = get(FORTUNE_URL.replace("birthTime=", "birthTime=07%3A30"), null);
+
+        assertThat(result.status()).isEqualTo(OK);
+        // 庚午年 辛巳月 庚辰日 庚辰時 (07:49 local mean time in Tokyo)
+        assertThat(contentAsString(result)).contains("命式", "庚午", "辛巳", "庚辰");
+    }
+
+    @Test
+    public void matchingETagIsNotModified() {
+        String etag = get(FORTUNE_URL, null).header(Http.HeaderNames.ETAG).get();
+
+        Result result = get(FORTUNE_URL, "\"other\", " + etag);
+
+        assertThat(result.status()).isEqualTo(NOT_MODIFIED);
+        assertThat(result.header(Http.HeaderNames.ETAG)).hasValue(etag);
+        assertThat(result.header(Http.HeaderNames.VARY)).hasValue(Http.HeaderNames.ACCEPT_ENCODING);
+        assertThat(contentAsString(result)).isEmpty();
+    }
+
+    @Test
+    public void differentInputsHaveDifferentETags() {
+        Optional<String> female = get(FORTUNE_URL, null).header(Http.HeaderNames.ETAG);
+        Optional<String> male = get(FORTUNE_URL.replace("female", "male"), null).header(Http.HeaderNames.ETAG);
+
+        assertThat(female).isPresent();
+        assertThat(male).isPresent().isNotEqualTo(female);
+    }
+
+    @Test
+    public void nameFortuneResultIsRevalidatedAfterAnHour() {
+        Result result = get(NAME_FORTUNE_URL, null);
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(Http.HeaderNames.CACHE_CONTROL)).hasValue("public, max-age=3600");
+
+        Result revalidated = get(NAME_FORTUNE_URL, "W/" + result.header(Http.HeaderNames.ETAG).get());
+        assertThat(revalidated.status()).isEqualTo(NOT_MODIFIED);
+        assertThat(revalidated.header(Http.HeaderNames.VARY)).hasValue(Http.HeaderNames.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void gzipVariantHasItsOwnETag() {
+        Http.RequestBuilder request = fakeRequest(GET, NAME_FORTUNE_URL)
+            .host("localhost:19001")
+            .header(Http.HeaderNames.ACCEPT_ENCODING, "gzip, deflate, br");
+        Result gzip = route(app, request);
+        Result identity = get(NAME_FORTUNE_URL, null);
+
+        assertThat(gzip.header(Http.HeaderNames.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(gzip.header(Http.HeaderNames.VARY)).hasValue(Http.HeaderNames.ACCEPT_ENCODING);
+        assertThat(identity.header(Http.HeaderNames.CONTENT_ENCODING)).isEmpty();
+        assertThat(gzip.header(Http.HeaderNames.ETAG)).isNotEqualTo(identity.header(Http.HeaderNames.ETAG));
+    }
+
+    @Test
+    public void invalidBirthDatesShowTheInputForm() {
+        for (String birthDate : new String[] {"", "1990-02-30", "15%2F05%2F1990", "1850-01-01"}) {
+            Result result = get(FORTUNE_URL.replace("1990-05-15", birthDate), null);
+
+            assertThat(result.status()).isEqualTo(BAD_REQUEST);
+            assertThat(contentAsString(result)).contains("入力内容に誤りがあります");
+        }
+    }
+
+    @Test
+    public void postedFormsAreBoundDirectly() {
+        Http.RequestBuilder fortune = fakeRequest(POST, "/fortune")
+            .host("localhost:19001")
+            .bodyForm(Map.of("birthDate", "1990-05-15", "birthTime", "", "prefecture", "東京都", "gender", "female"));
+        assertThat(route(app, CSRFTokenHelper.addCSRFToken(fortune)).status()).isEqualTo(OK);
+
+        Http.RequestBuilder invalid = fakeRequest(POST, "/fortune")
+            .host("localhost:19001")
+            .bodyForm(Map.of("birthDate", "1990/05/15"));
+        assertThat(route(app, CSRFTokenHelper.addCSRFToken(invalid)).status()).isEqualTo(BAD_REQUEST);
+
+        Http.RequestBuilder nameFortune = fakeRequest(POST, "/namefortune")
+            .host("localhost:19001")
+            .bodyForm(Map.of("familyName", "佐藤", "givenName", "", "gender", "male"));
+        assertThat(route(app, CSRFTokenHelper.addCSRFToken(nameFortune)).status()).isEqualTo(BAD_REQUEST);
+    }
+}
@@ -0,0 +1,30 @@
+package controllers;
+
+import org.junit.Test;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class MetricsControllerTest extends WithApplication {
+
+    @Test
+    public void exposesRouteMetrics() {
+        route(app, fakeRequest(GET, "/").host("localhost:19001"));
+
+        Result result = route(app, fakeRequest(GET, "/metrics").host("localhost:19001"));
+
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.contentType()).hasValue("text/plain");
+        assertThat(contentAsString(result))
+            .contains("fortune_http_requests_total{method=\"GET\",route=\"/\"} 1");
+    }
+
+    @Test
+    public void hidesMetricsFromRemoteClients() {
+        Result result = route(app, fakeRequest(GET, "/metrics").host("localhost:19001").remoteAddress("192.0.2.10"));
+
+        assertThat(result.status()).isEqualTo(NOT_FOUND);
+    }
+}
@@ -0,0 +1,51 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Test;
+import play.libs.Json;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class NameSearchControllerTest extends WithApplication {
+
+    private Result get(String uri) {
+        return route(app, fakeRequest(GET, uri).host("localhost:19001"));
+    }
+
+    @Test
+    public void returnsBestCandidatesFirst() {
+        Result result = get("/api/namefortunes/search?familyName=%E4%BD%90%E8%97%A4&gender=female&limit=5");
+
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode body = Json.parse(contentAsString(result));
+        assertThat(body.path("familyName").asText()).isEqualTo("佐藤");
+        JsonNode candidates = body.path("candidates");
+        assertThat(candidates.size()).isBetween(1, 5);
+        for (int i = 1; i < candidates.size(); i++) {
+            assertThat(candidates.get(i).path("score").asInt())
+                .isLessThanOrEqualTo(candidates.get(i - 1).path("score").asInt());
+        }
+        assertThat(candidates.get(0).path("tenKaku").asInt()).isEqualTo(25);
+    }
+
+    @Test
+    public void appliesLengthAndKanaConstraints() {
+        Result result = get("/api/namefortunes/search?familyName=%E4%BD%90%E8%97%A4&length=3&kanaOnly=true&limit=50");
+
+        JsonNode candidates = Json.parse(contentAsString(result)).path("candidates");
+        assertThat(candidates.size()).isGreaterThan(0);
+        for (JsonNode candidate : candidates) {
+            assertThat(candidate.path("givenName").asText()).matches("[\\p{InHiragana}\\p{InKatakana}]{3}");
+        }
+    }
+
+    @Test
+    public void rejectsInvalidParameters() {
+        assertThat(get("/api/namefortunes/search").status()).isEqualTo(BAD_REQUEST);
+        assertThat(get("/api/namefortunes/search?familyName=%E4%BD%90%E8%97%A4&limit=1000").status()).isEqualTo(BAD_REQUEST);
+        assertThat(get("/api/namefortunes/search?familyName=%E4%BD%90%E8%97%A4&length=two").status()).isEqualTo(BAD_REQUEST);
+    }
+}
@@ -0,0 +1,70 @@
+package controllers;
+
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import fortune.NameFortuneEngine;
+import fortune.StrokeDictionary;
+import models.BirthChart;
+import models.NameFortune;
+import models.WeeklyFortune;
+import org.junit.Test;
+import play.test.WithApplication;
+import views.html.fortune;
+import views.html.name_fortune_result;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResultPageCacheTest extends WithApplication {
+
+    private static String gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void fortunePageMatchesTemplate() throws IOException {
+        ResultPageCache cache = app.injector().instanceOf(ResultPageCache.class);
+        AssetsFinder assetsFinder = app.injector().instanceOf(AssetsFinder.class);
+        FourPillarsEngine engine = new FourPillarsEngine();
+        LocalDate birthDate = LocalDate.of(1990, 5, 15);
+        WeeklyFortune week = FortuneWeek.startingAt(LocalDate.of(2024, 3, 15)).fortuneFor(birthDate);
+
+        for (String birthTime : new String[] {"", "07:30"}) {
+            BirthChart chart = engine.chart(birthDate, birthTime.isEmpty() ? null : LocalTime.parse(birthTime), "東京都");
+            for (String gender : new String[] {"male", "female"}) {
+                String expected = fortune.render("1990-05-15", birthTime, "<東京都>", gender,
+                    chart.getYearPillarName(), chart.getMonthPillarName(), chart.getDayPillarName(),
+                    chart.getHourPillarName(), week, assetsFinder).body();
+
+                byte[] page = cache.fortunePage("1990-05-15", birthTime, "<東京都>", gender, chart, week, false);
+                byte[] gzip = cache.fortunePage("1990-05-15", birthTime, "<東京都>", gender, chart, week, true);
+
+                assertThat(new String(page, StandardCharsets.UTF_8)).isEqualTo(expected);
+                assertThat(gunzip(gzip)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void nameFortunePageMatchesTemplate() throws IOException {
+        ResultPageCache cache = app.injector().instanceOf(ResultPageCache.class);
+        AssetsFinder assetsFinder = app.injector().instanceOf(AssetsFinder.class);
+        NameFortune result = new NameFortuneEngine(StrokeDictionary.builtin()).generateNameFortune("佐藤", "太郎");
+        String expected = name_fortune_result.render("佐藤", "\"太郎\"", "male", result, assetsFinder).body();
+
+        byte[] page = cache.nameFortunePage("佐藤", "\"太郎\"", "male", result, false);
+        byte[] gzip = cache.nameFortunePage("佐藤", "\"太郎\"", "male", result, true);
+
+        assertThat(new String(page, StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThat(gunzip(gzip)).isEqualTo(expected);
+        assertThat(cache.weightedSize()).isPositive();
+    }
+}
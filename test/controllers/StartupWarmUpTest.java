@@ -0,0 +1,19 @@
+package controllers;
+
+import org.junit.Test;
+import play.test.WithApplication;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupWarmUpTest extends WithApplication {
+
+    @Test
+    public void runsSyntheticRequestsWithinTheTimeLimit() {
+        StartupWarmUp warmUp = app.injector().instanceOf(StartupWarmUp.class);
+
+        assertThat(warmUp.run(20, TimeUnit.SECONDS.toNanos(30))).isEqualTo(20);
+        assertThat(warmUp.run(1_000_000, 0)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,65 @@
+package filters;
+
+import org.junit.Test;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.test.WithServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+/**
+ * Requests arrive from the loopback interface, like from a proxy on the
+ * same host, whose X-Forwarded-For ends with the address it saw.
+ */
+public class ForwardedAddressTest extends WithServer {
+
+    private static final String NAME_FORTUNE_URL =
+        "/namefortune/result?familyName=%E4%BD%90%E8%97%A4&givenName=%E5%A4%AA%E9%83%8E&gender=male";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Override
+    protected Application provideApplication() {
+        return new GuiceApplicationBuilder()
+            .configure("fortune.rateLimit.ratePerSecond", 1)
+            .configure("fortune.rateLimit.burst", 2)
+            .configure("fortune.audit.enabled", true)
+            .configure("fortune.audit.url", "jdbc:h2:mem:forwarded;DB_CLOSE_DELAY=-1")
+            .build();
+    }
+
+    private int get(String path, String forwardedFor) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + testServer.getRunningHttpPort().getAsInt() + path));
+        if (forwardedFor != null) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Test
+    public void spoofedLoopbackAddressDoesNotUnlockLocalOnlyRoutes() throws Exception {
+        assertThat(get("/metrics", null)).isEqualTo(OK);
+        assertThat(get("/api/audit/report", null)).isEqualTo(OK);
+
+        // The client at 203.0.113.7 claims to be 127.0.0.1
+        assertThat(get("/metrics", "127.0.0.1, 203.0.113.7")).isEqualTo(NOT_FOUND);
+        assertThat(get("/api/audit/report", "127.0.0.1, 203.0.113.7")).isEqualTo(NOT_FOUND);
+    }
+
+    @Test
+    public void spoofedAddressesShareTheRealClientsBucket() throws Exception {
+        assertThat(get(NAME_FORTUNE_URL, "198.51.100.1, 203.0.113.8")).isEqualTo(OK);
+        assertThat(get(NAME_FORTUNE_URL, "198.51.100.2, 203.0.113.8")).isEqualTo(OK);
+
+        assertThat(get(NAME_FORTUNE_URL, "198.51.100.3, 203.0.113.8")).isEqualTo(TOO_MANY_REQUESTS);
+        assertThat(get(NAME_FORTUNE_URL, "203.0.113.9")).isEqualTo(OK);
+    }
+}
@@ -0,0 +1,65 @@
+package filters;
+
+import org.junit.Test;
+import play.Application;
+import play.api.test.CSRFTokenHelper;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+public class RateLimitFilterTest extends WithApplication {
+
+    @Override
+    protected Application provideApplication() {
+        return new GuiceApplicationBuilder()
+            .configure("fortune.rateLimit.ratePerSecond", 1)
+            .configure("fortune.rateLimit.burst", 2)
+            .build();
+    }
+
+    private Result post(String uri, String remoteAddress) {
+        Http.RequestBuilder request = fakeRequest(POST, uri)
+            .host("localhost:19001")
+            .remoteAddress(remoteAddress)
+            .bodyForm(Map.of("familyName", "佐藤", "givenName", "太郎", "gender", "male"));
+        return route(app, CSRFTokenHelper.addCSRFToken(request));
+    }
+
+    @Test
+    public void rejectsClientsOverTheirBucket() {
+        assertThat(post("/namefortune", "10.0.0.1").status()).isEqualTo(OK);
+        assertThat(post("/namefortune", "10.0.0.1").status()).isEqualTo(OK);
+
+        Result limited = post("/namefortune", "10.0.0.1");
+        assertThat(limited.status()).isEqualTo(TOO_MANY_REQUESTS);
+        assertThat(limited.header(Http.HeaderNames.RETRY_AFTER)).hasValue("1");
+
+        assertThat(post("/namefortune", "10.0.0.2").status()).isEqualTo(OK);
+    }
+
+    @Test
+    public void limitsTheResultPagesTheFormsSubmit() {
+        String uri = "/namefortune/result?familyName=%E4%BD%90%E8%97%A4&givenName=%E5%A4%AA%E9%83%8E&gender=male";
+        for (int i = 0; i < 2; i++) {
+            assertThat(route(app, fakeRequest(GET, uri).host("localhost:19001").remoteAddress("10.0.0.3")).status())
+                .isEqualTo(OK);
+        }
+
+        Result limited = route(app, fakeRequest(GET, uri).host("localhost:19001").remoteAddress("10.0.0.3"));
+        assertThat(limited.status()).isEqualTo(TOO_MANY_REQUESTS);
+        assertThat(limited.header(Http.HeaderNames.RETRY_AFTER)).isPresent();
+    }
+
+    @Test
+    public void leavesOtherRoutesAlone() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(route(app, fakeRequest(GET, "/").host("localhost:19001")).status()).isEqualTo(OK);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.Rating;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditLogTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+
+    private static Config config(String database, int queueSize) {
+        return ConfigFactory.parseString("fortune.audit { enabled = true"
+            + ", url = \"jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1\", user = sa, password = \"\""
+            + ", queueSize = " + queueSize + ", batchSize = 100, flushInterval = 10ms, retention = 30d }");
+    }
+
+    private static Clock clock() {
+        return Clock.fixed(TODAY.atTime(12, 0).atZone(TOKYO).toInstant(), TOKYO);
+    }
+
+    @Test
+    public void rollsUpRatingsAndSurnames() throws Exception {
+        AuditLog log = new AuditLog(config("rollup", 1000), clock());
+        log.start();
+        long latency = TimeUnit.MILLISECONDS.toNanos(3);
+        for (int i = 0; i < 250; i++) {
+            log.record(AuditLog.NAME_FORTUNE, i % 5 == 0 ? Rating.EXCELLENT : Rating.GOOD, 31, i % 2 == 0 ? "佐藤" : "鈴木", latency);
+        }
+        log.record(AuditLog.FORTUNE, Rating.POOR, 0, null, latency);
+        log.stop();
+
+        List<AuditLog.RatingCount> ratings = log.ratingsSince(TODAY);
+        assertThat(ratings).hasSize(3);
+        long nameRequests = 0;
+        for (AuditLog.RatingCount row : ratings) {
+            assertThat(row.getDay()).isEqualTo(TODAY);
+            if (row.getRoute().equals("nameFortune")) {
+                nameRequests += row.getRequests();
+                assertThat(row.getRequests()).isEqualTo(row.getRating() == Rating.EXCELLENT ? 50L : 200L);
+                assertThat(row.getLatencyMicros()).isEqualTo(row.getRequests() * 3000);
+            } else {
+                assertThat(row.getRating()).isEqualTo(Rating.POOR);
+                assertThat(row.getRequests()).isEqualTo(1L);
+            }
+        }
+        assertThat(nameRequests).isEqualTo(250L);
+
+        List<AuditLog.SurnameCount> surnames = log.topSurnamesSince(TODAY, 1, 10);
+        assertThat(surnames).hasSize(2);
+        assertThat(surnames.get(0).getRequests()).isEqualTo(125L);
+        assertThat(log.topSurnamesSince(TODAY, 200, 10)).isEmpty();
+        assertThat(log.ratingsSince(TODAY.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    public void longSurnamesAreCutWithoutSplittingSurrogatePairs() {
+        String kanji = "佐".repeat(40);
+        String pairs = "𠮷".repeat(20);
+
+        assertThat(AuditLog.surname("佐藤")).isEqualTo("佐藤");
+        assertThat(AuditLog.surname("")).isNull();
+        assertThat(AuditLog.surname(kanji)).isEqualTo("佐".repeat(32));
+        assertThat(AuditLog.surname(pairs)).isEqualTo("𠮷".repeat(16));
+        assertThat(AuditLog.surname("佐" + pairs)).isEqualTo("佐" + "𠮷".repeat(15));
+    }
+
+    @Test
+    public void concurrentRecordingNeitherBlocksNorLosesAcceptedEvents() throws Exception {
+        int queueSize = 2_000;
+        AuditLog log = new AuditLog(config("concurrent", queueSize), clock());
+        int threads = 8;
+        int perThread = 5_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    log.record(AuditLog.FORTUNE, Rating.AVERAGE, 0, null, 1_000);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        // The writer is not running yet, so everything past the queue bound must be dropped, not waited for
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+            assertThat(worker.isAlive()).isFalse();
+        }
+        log.start();
+        log.stop();
+
+        List<AuditLog.RatingCount> ratings = log.ratingsSince(TODAY);
+        assertThat(ratings).hasSize(1);
+        assertThat(ratings.get(0).getRequests()).isEqualTo((long) queueSize);
+    }
+}
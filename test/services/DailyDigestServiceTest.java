@@ -0,0 +1,51 @@
+package services;
+
+import fortune.FourPillarsEngine;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DailyDigestServiceTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1990, 5, 15);
+
+    private static int expectedRatingIndex(LocalDate day) {
+        return new FourPillarsEngine().generateDailyFortune(day, BIRTH_DATE).getRating().ordinal();
+    }
+
+    @Test
+    public void swapsThePreparedDigestInAtMidnight() {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2024, 3, 31, 23, 55, 0, 0, TOKYO));
+        DailyDigestService service = new DailyDigestService(clock, 300_000);
+        DailyDigestService.Snapshot beforeMidnight = service.today();
+        assertThat(beforeMidnight.getDigest().getDay()).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(service.secondsRemaining(beforeMidnight)).isEqualTo(300);
+
+        service.prepareNext();
+        assertThat(service.today()).isSameAs(beforeMidnight);
+
+        clock.set(ZonedDateTime.of(2024, 4, 1, 0, 0, 0, 0, TOKYO));
+        service.swap();
+        DailyDigestService.Snapshot afterMidnight = service.today();
+        assertThat(afterMidnight.getDigest().getDay()).isEqualTo(LocalDate.of(2024, 4, 1));
+        assertThat(afterMidnight.getDigest().ratingIndex(BIRTH_DATE))
+            .isEqualTo(expectedRatingIndex(LocalDate.of(2024, 4, 1)));
+    }
+
+    @Test
+    public void computesTheDigestItselfWhenTheJobMissedMidnight() {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2024, 3, 31, 12, 0, 0, 0, TOKYO));
+        DailyDigestService service = new DailyDigestService(clock, 300_000);
+
+        clock.set(ZonedDateTime.of(2024, 4, 2, 8, 0, 0, 0, TOKYO));
+        DailyDigestService.Snapshot snapshot = service.today();
+        assertThat(snapshot.getDigest().getDay()).isEqualTo(LocalDate.of(2024, 4, 2));
+        assertThat(snapshot.getDigest().ratingIndex(BIRTH_DATE)).isEqualTo(expectedRatingIndex(LocalDate.of(2024, 4, 2)));
+        assertThat(service.today()).isSameAs(snapshot);
+    }
+}
@@ -0,0 +1,70 @@
+package services;
+
+import fortune.FortuneWeek;
+import fortune.FourPillarsEngine;
+import models.Rating;
+import models.WeeklyFortune;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FortuneCalendarTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+
+    private static Rating expectedRating(LocalDate birthDate, LocalDate currentDate) {
+        return new FourPillarsEngine().generateDailyFortune(currentDate, birthDate).getRating();
+    }
+
+    @Test
+    public void matchesPerDayCalculation() {
+        LocalDate today = LocalDate.of(2024, 2, 27);
+        FortuneCalendar calendar = new FortuneCalendar(
+            Clock.fixed(today.atTime(12, 0).atZone(TOKYO).toInstant(), TOKYO));
+
+        for (LocalDate birthDate : new LocalDate[] {
+                LocalDate.of(1990, 5, 15), LocalDate.of(2000, 2, 29), LocalDate.of(2030, 1, 1)}) {
+            WeeklyFortune week = calendar.currentWeek().fortuneFor(birthDate);
+            assertThat(week.size()).isEqualTo(FortuneWeek.DAYS);
+            for (int i = 0; i < week.size(); i++) {
+                assertThat(week.getDay(i).getRating()).isEqualTo(expectedRating(birthDate, today.plusDays(i)));
+            }
+        }
+    }
+
+    @Test
+    public void labelsStartToday() {
+        FortuneCalendar calendar = new FortuneCalendar(
+            Clock.fixed(ZonedDateTime.of(2024, 2, 27, 9, 0, 0, 0, TOKYO).toInstant(), TOKYO));
+
+        WeeklyFortune week = calendar.currentWeek().fortuneFor(LocalDate.of(1990, 5, 15));
+
+        assertThat(week.getDayLabel(0)).isEqualTo("今日 (2月27日 火曜日)");
+        assertThat(week.getDayLabel(1)).isEqualTo("明日 (2月28日 水曜日)");
+        assertThat(week.getDayLabel(2)).isEqualTo("2月29日 (木曜日)");
+    }
+
+    @Test
+    public void rollsOverAtLocalMidnight() {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2024, 3, 31, 23, 59, 59, 0, TOKYO));
+        FortuneCalendar calendar = new FortuneCalendar(clock);
+
+        FortuneWeek beforeMidnight = calendar.currentWeek();
+        assertThat(beforeMidnight.getFirstDay()).isEqualTo(LocalDate.of(2024, 3, 31));
+
+        clock.set(ZonedDateTime.of(2024, 4, 1, 0, 0, 0, 0, TOKYO));
+        FortuneWeek afterMidnight = calendar.currentWeek();
+        assertThat(afterMidnight.getFirstDay()).isEqualTo(LocalDate.of(2024, 4, 1));
+        assertThat(afterMidnight.fortuneFor(LocalDate.of(1990, 5, 15)).getDayLabel(0))
+            .isEqualTo("今日 (4月1日 月曜日)");
+
+        // Same window until the next midnight
+        clock.set(ZonedDateTime.of(2024, 4, 1, 23, 59, 59, 0, TOKYO));
+        assertThat(calendar.currentWeek()).isSameAs(afterMidnight);
+    }
+}
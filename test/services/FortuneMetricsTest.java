@@ -0,0 +1,56 @@
+package services;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FortuneMetricsTest {
+
+    @Test
+    public void rendersCountsAndLatencies() {
+        FortuneMetrics metrics = new FortuneMetrics();
+        FortuneMetrics.RouteMetrics route = metrics.route("POST", "/fortune");
+        long start = System.nanoTime();
+        route.record(start, false);
+        route.record(start, true);
+        metrics.action("fortune").getCompute().record(2_000_000);
+
+        String text = metrics.toPrometheusText();
+
+        assertThat(text)
+            .contains("fortune_http_requests_total{method=\"POST\",route=\"/fortune\"} 2\n")
+            .contains("fortune_http_errors_total{method=\"POST\",route=\"/fortune\"} 1\n")
+            .contains("fortune_http_request_duration_seconds_count{method=\"POST\",route=\"/fortune\"} 2\n")
+            .contains("fortune_action_phase_duration_seconds_count{action=\"fortune\",phase=\"compute\"} 1\n")
+            .contains("fortune_action_phase_duration_seconds_sum{action=\"fortune\",phase=\"compute\"} 0.002000000\n");
+    }
+
+    @Test
+    public void concurrentRecordingLosesNoRequests() throws Exception {
+        FortuneMetrics metrics = new FortuneMetrics();
+        int threads = 8;
+        int perThread = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    metrics.route("GET", "/").record(System.nanoTime(), false);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        // Scrape while recording is in progress
+        metrics.toPrometheusText();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(metrics.route("GET", "/").getRequests()).isEqualTo(threads * perThread);
+        assertThat(metrics.toPrometheusText())
+            .contains("fortune_http_request_duration_seconds_count{method=\"GET\",route=\"/\"} " + threads * perThread + "\n");
+    }
+}
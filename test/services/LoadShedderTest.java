@@ -0,0 +1,98 @@
+package services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadShedderTest {
+
+    private static Config config(int initialLimit, int maxLimit) {
+        return ConfigFactory.parseString("enabled = true, initialLimit = " + initialLimit
+            + ", minLimit = 2, maxLimit = " + maxLimit + ", tolerance = 2.0, smoothing = 0.2, retryAfter = 1s");
+    }
+
+    @Test
+    public void rejectsOverTheLimit() {
+        LoadShedder shedder = new LoadShedder(config(3, 3));
+
+        assertThat(shedder.tryAcquire()).isTrue();
+        assertThat(shedder.tryAcquire()).isTrue();
+        assertThat(shedder.tryAcquire()).isTrue();
+        assertThat(shedder.tryAcquire()).isFalse();
+
+        shedder.release(System.nanoTime());
+        assertThat(shedder.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void limitFollowsLatency() {
+        LoadShedder shedder = new LoadShedder(config(20, 100));
+        long fast = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 200; i++) {
+            shedder.sample(fast, 20);
+        }
+        long grown = shedder.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 20; i++) {
+            shedder.sample(fast * 10, (int) grown);
+        }
+        assertThat(shedder.getLimit()).isLessThan(grown);
+
+        // An idle server tells nothing about the limit
+        long limit = shedder.getLimit();
+        shedder.sample(fast * 100, 0);
+        assertThat(shedder.getLimit()).isEqualTo(limit);
+    }
+
+    @Test
+    public void concurrentRequestsNeverExceedTheLimit() throws Exception {
+        // The limit is pinned at 4, so at most 4 of the 16 threads may ever be inside at once
+        LoadShedder shedder = new LoadShedder(config(4, 4));
+        int threads = 16;
+        int perThread = 5_000;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    if (!shedder.tryAcquire()) {
+                        continue;
+                    }
+                    long begin = System.nanoTime();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    admitted.incrementAndGet();
+                    Thread.yield();
+                    inFlight.decrementAndGet();
+                    shedder.release(begin);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(admitted.get()).isGreaterThan(0);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(4);
+        assertThat(shedder.getInFlight()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,40 @@
+package services;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * A clock whose time can be moved by the test, in the zone of the time
+ * it was created with.
+ */
+final class MutableClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant instant;
+
+    MutableClock(ZonedDateTime time) {
+        this.zone = time.getZone();
+        this.instant = time.toInstant();
+    }
+
+    void set(ZonedDateTime time) {
+        this.instant = time.toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
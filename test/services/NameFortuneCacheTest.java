@@ -0,0 +1,216 @@
+package services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import models.NameFortune;
+import models.Rating;
+import models.StrokeFortune;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NameFortuneCacheTest {
+
+    private static Config config(boolean enabled) {
+        return ConfigFactory.parseString(
+            "fortune.nameCache { enabled = " + enabled + ", maximumSize = 100, expireAfterWrite = 1h }");
+    }
+
+    private static Config config(boolean enabled, String keyPrefix) {
+        return config(enabled, keyPrefix, "3");
+    }
+
+    private static Config config(boolean enabled, String keyPrefix, String resultVersion) {
+        return ConfigFactory.parseString(
+            "fortune.nameCache { enabled = " + enabled + ", maximumSize = 100, expireAfterWrite = 1h }"
+                + ", fortune.remoteCache { keyPrefix = \"" + keyPrefix + "\" }"
+                + ", fortune.http { resultVersion = \"" + resultVersion + "\" }");
+    }
+
+    /**
+     * A remote tier backed by a map, shared by the caches of several "instances".
+     */
+    private static class MapRemoteCache implements RemoteCache {
+        final Map<String, String> values = new ConcurrentHashMap<>();
+
+        @Override
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public void put(String key, String value, long ttlMillis) {
+            values.put(key, value);
+        }
+    }
+
+    private static NameFortune result() {
+        return new NameFortune(0, 0, 0, 0, 0, 0, 0, StrokeFortune.of(Rating.GOOD));
+    }
+
+    @Test
+    public void variantsShareOneEntry() {
+        NameFortuneCache cache = new NameFortuneCache(config(true));
+        AtomicInteger loads = new AtomicInteger();
+        AtomicReference<String> loadedName = new AtomicReference<>();
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            loadedName.set(familyName + givenName);
+            return result();
+        };
+
+        NameFortune first = cache.get("ｻﾄｳ", "ﾀﾛｳ", loader);
+        NameFortune second = cache.get("サトウ", "タロウ", loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(loadedName.get()).isEqualTo("サトウタロウ");
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test(timeout = 10_000)
+    public void errorInTheLoaderDoesNotBlockLaterRequests() {
+        NameFortuneCache cache = new NameFortuneCache(config(true));
+
+        assertThatThrownBy(() -> cache.get("佐藤", "花子", (familyName, givenName) -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        NameFortune retried = cache.get("佐藤", "花子", (familyName, givenName) -> result());
+
+        assertThat(retried.getSoKaku()).isEqualTo(result().getSoKaku());
+    }
+
+    @Test
+    public void disabledCacheAlwaysComputes() {
+        NameFortuneCache cache = new NameFortuneCache(config(false));
+        AtomicInteger loads = new AtomicInteger();
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            return result();
+        };
+
+        cache.get("佐藤", "花子", loader);
+        cache.get("佐藤", "花子", loader);
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsComputeOnce() throws Exception {
+        NameFortuneCache cache = new NameFortuneCache(config(true));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result();
+        };
+
+        List<NameFortune> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                NameFortune fortune = cache.get("佐藤", "花子", loader);
+                synchronized (results) {
+                    results.add(fortune);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).hasSize(8);
+        for (NameFortune fortune : results) {
+            assertThat(fortune).isSameAs(results.get(0));
+        }
+    }
+
+    @Test
+    public void instancesShareResultsThroughTheRemoteTier() {
+        MapRemoteCache remote = new MapRemoteCache();
+        NameFortuneCache first = new NameFortuneCache(config(true, "test:"), remote);
+        NameFortuneCache second = new NameFortuneCache(config(true, "test:"), remote);
+        AtomicInteger loads = new AtomicInteger();
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            return new NameFortune(25, 10, 26, 12, 11, 24, 35, StrokeFortune.of(Rating.EXCELLENT));
+        };
+
+        first.get("佐藤", "花子", loader);
+        NameFortune shared = second.get("佐藤", "花子", loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(remote.values).containsKey("test:name:3:佐藤\u0000花子");
+        assertThat(shared.getSoKaku()).isEqualTo(35);
+        assertThat(shared.getJinKaku()).isEqualTo(12);
+        assertThat(shared.getStrokeFortune()).isSameAs(StrokeFortune.of(Rating.EXCELLENT));
+    }
+
+    @Test
+    public void newResultVersionDoesNotReadOlderSharedResults() {
+        MapRemoteCache remote = new MapRemoteCache();
+        NameFortuneCache before = new NameFortuneCache(config(true, "test:", "3"), remote);
+        NameFortuneCache after = new NameFortuneCache(config(true, "test:", "4"), remote);
+        AtomicInteger loads = new AtomicInteger();
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            return new NameFortune(25, 10, 26, 12, 11, 24, 35, StrokeFortune.of(Rating.EXCELLENT));
+        };
+
+        before.get("佐藤", "花子", loader);
+        after.get("佐藤", "花子", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(remote.values).hasSize(2);
+    }
+
+    @Test
+    public void unavailableRemoteTierFallsBackToComputing() {
+        RemoteCache broken = new RemoteCache() {
+            @Override
+            public String get(String key) throws IOException {
+                throw new IOException("down");
+            }
+
+            @Override
+            public void put(String key, String value, long ttlMillis) throws IOException {
+                throw new IOException("down");
+            }
+        };
+        NameFortuneCache cache = new NameFortuneCache(config(false, "test:"), broken);
+        AtomicInteger loads = new AtomicInteger();
+        NameFortuneCache.Loader loader = (familyName, givenName) -> {
+            loads.incrementAndGet();
+            return result();
+        };
+
+        cache.get("佐藤", "花子", loader);
+        cache.get("佐藤", "花子", loader);
+
+        assertThat(cache.isRemoteEnabled()).isTrue();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
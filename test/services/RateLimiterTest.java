@@ -0,0 +1,87 @@
+package services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private static Config config(int ratePerSecond, int burst) {
+        return ConfigFactory.parseString(
+            "enabled = true, ratePerSecond = " + ratePerSecond + ", burst = " + burst + ", stripes = 1024");
+    }
+
+    @Test
+    public void refillsAtTheConfiguredRate() {
+        AtomicLong now = new AtomicLong(1_000_000_000L);
+        RateLimiter limiter = new RateLimiter(config(2, 3), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(0);
+        }
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(500);
+        assertThat(limiter.tryAcquire("10.0.0.2")).isEqualTo(0);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(250);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(0);
+        assertThat(limiter.tryAcquire("10.0.0.1")).isGreaterThan(0);
+
+        // A long pause refills the bucket up to the burst only
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(0);
+        }
+        assertThat(limiter.tryAcquire("10.0.0.1")).isGreaterThan(0);
+    }
+
+    @Test
+    public void concurrentClientsNeverExceedTheBurst() throws Exception {
+        // Frozen clock: exactly the burst of each client must get through, however the threads interleave
+        RateLimiter limiter = new RateLimiter(config(1, 500), () -> 0L);
+        int threads = 8;
+        int clients = 4;
+        int perThread = 2_000;
+        AtomicInteger[] granted = new AtomicInteger[clients];
+        for (int c = 0; c < clients; c++) {
+            granted[c] = new AtomicInteger();
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    int client = i % clients;
+                    if (limiter.tryAcquire("192.168.0." + client) == 0) {
+                        granted[client].incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int c = 0; c < clients; c++) {
+            assertThat(granted[c].get()).isEqualTo(500);
+        }
+    }
+}
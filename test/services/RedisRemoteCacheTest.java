@@ -0,0 +1,48 @@
+package services;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RedisRemoteCacheTest {
+
+    private static Config config(int port, String password) {
+        return ConfigFactory.parseString("fortune.remoteCache.redis { host = \"127.0.0.1\", port = " + port
+            + ", password = \"" + password + "\", database = 2, connectTimeout = 1s, timeout = 1s"
+            + ", poolSize = 4, retryAfter = 1h }");
+    }
+
+    @Test
+    public void storesAndReadsValuesOverPooledConnections() throws Exception {
+        try (RedisStandIn server = new RedisStandIn("secret")) {
+            RedisRemoteCache cache = new RedisRemoteCache(config(server.port(), "secret"));
+
+            assertThat(cache.get("fortune:name:佐藤")).isNull();
+            cache.put("fortune:name:佐藤", "25,10,26,12,11,24,35,2", 60_000);
+            assertThat(cache.get("fortune:name:佐藤")).isEqualTo("25,10,26,12,11,24,35,2");
+            assertThat(server.ttlMillis("fortune:name:佐藤")).isBetween(1L, 60_000L);
+
+            assertThat(server.connections()).isEqualTo(1);
+            cache.close();
+        }
+    }
+
+    @Test
+    public void bypassesTheServerAfterAFailure() throws Exception {
+        try (RedisStandIn server = new RedisStandIn("secret")) {
+            RedisRemoteCache cache = new RedisRemoteCache(config(server.port(), "wrong"));
+
+            assertThatThrownBy(() -> cache.get("key")).isInstanceOf(IOException.class);
+            int commands = server.commands();
+            assertThatThrownBy(() -> cache.get("key")).isInstanceOf(IOException.class);
+
+            assertThat(server.connections()).isEqualTo(1);
+            assertThat(server.commands()).isEqualTo(commands);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for a Redis server speaking enough RESP for
+ * {@link RedisRemoteCache}: AUTH, SELECT, GET and SET with PX.
+ */
+final class RedisStandIn implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final String password;
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger commands = new AtomicInteger();
+
+    RedisStandIn(String password) throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.password = password;
+        Thread acceptor = new Thread(this::accept, "redis-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    int commands() {
+        return commands.get();
+    }
+
+    Long ttlMillis(String key) {
+        Long expiry = expiries.get(key);
+        return expiry != null ? expiry - System.currentTimeMillis() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.incrementAndGet();
+                Thread handler = new Thread(() -> serve(socket), "redis-stand-in-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            boolean authenticated = password.isEmpty();
+            while (true) {
+                String[] command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                commands.incrementAndGet();
+                String name = command[0].toUpperCase();
+                if (name.equals("AUTH")) {
+                    authenticated = command[1].equals(password);
+                    write(out, authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n");
+                } else if (!authenticated) {
+                    write(out, "-NOAUTH Authentication required.\r\n");
+                } else if (name.equals("SELECT")) {
+                    write(out, "+OK\r\n");
+                } else if (name.equals("SET")) {
+                    values.put(command[1], command[2].getBytes(StandardCharsets.UTF_8));
+                    if (command.length == 5 && command[3].equalsIgnoreCase("PX")) {
+                        expiries.put(command[1], System.currentTimeMillis() + Long.parseLong(command[4]));
+                    }
+                    write(out, "+OK\r\n");
+                } else if (name.equals("GET")) {
+                    Long expiry = expiries.get(command[1]);
+                    byte[] value = expiry != null && expiry < System.currentTimeMillis() ? null : values.get(command[1]);
+                    if (value == null) {
+                        write(out, "$-1\r\n");
+                    } else {
+                        write(out, "$" + value.length + "\r\n");
+                        out.write(value);
+                        write(out, "\r\n");
+                    }
+                } else {
+                    write(out, "-ERR unknown command '" + command[0] + "'\r\n");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static String[] readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        String[] command = new String[Integer.parseInt(readLine(in))];
+        for (int i = 0; i < command.length; i++) {
+            in.read();
+            int length = Integer.parseInt(readLine(in));
+            command[i] = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+            readLine(in);
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                throw new IOException("closed");
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}